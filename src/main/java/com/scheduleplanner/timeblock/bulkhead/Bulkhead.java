@@ -0,0 +1,142 @@
+package com.scheduleplanner.timeblock.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded executor that isolates one class of traffic.
+ * The thread count is also the class's database connection budget, since each operation holds at
+ * most one connection; work beyond threads + queue is refused immediately, and an operation that
+ * runs past the timeout is cancelled and reported as timed out. The caller's thread still blocks
+ * until the result or the timeout. The deadline is visible to the task through
+ * {@link #remainingTime()}, which {@link BulkheadTransactionManager} uses to cap transaction timeouts.
+ */
+public class Bulkhead {
+
+    /** Time operations spend queued before a thread picks them up, one timer per bulkhead */
+    public static final String QUEUE_WAIT_TIMER = "timeblock.bulkhead.queue_wait";
+
+    public static final String REJECTED_COUNTER = "timeblock.bulkhead.rejected";
+
+    public static final String TIMEOUT_COUNTER = "timeblock.bulkhead.timeouts";
+
+    private static final Logger logger = LoggerFactory.getLogger(Bulkhead.class);
+
+    /** System.nanoTime() by which the operation running on this thread must be done */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private final String name;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final Counter timedOut;
+    private final Timer queueWait;
+
+    public Bulkhead(String name, int threads, int queueCapacity, Duration timeout, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(name), new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("timeblock.bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("bulkhead", name).description("Operations currently running").register(meterRegistry);
+        Gauge.builder("timeblock.bulkhead.queued", executor, e -> e.getQueue().size())
+                .tag("bulkhead", name).description("Operations waiting for a thread").register(meterRegistry);
+        Gauge.builder("timeblock.bulkhead.utilization", executor,
+                        e -> (double) (e.getActiveCount() + e.getQueue().size()) / (threads + queueCapacity))
+                .tag("bulkhead", name).description("Share of threads and queue slots in use").register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED_COUNTER)
+                .tag("bulkhead", name).description("Operations refused because the bulkhead was full").register(meterRegistry);
+        this.timedOut = Counter.builder(TIMEOUT_COUNTER)
+                .tag("bulkhead", name).description("Operations cancelled after the bulkhead timeout").register(meterRegistry);
+        this.queueWait = Timer.builder(QUEUE_WAIT_TIMER)
+                .tag("bulkhead", name).description("Time operations waited for a thread").register(meterRegistry);
+    }
+
+    /**
+     * Run the task in this bulkhead and wait for its result.
+     * Exceptions thrown by the task are rethrown unchanged.
+     */
+    public <T> T execute(Callable<T> task) throws Exception {
+        long submitted = System.nanoTime();
+        long deadline = submitted + timeout.toNanos();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                DEADLINE.set(deadline);
+                try {
+                    return task.call();
+                } finally {
+                    DEADLINE.remove();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BulkheadRejectedException("Service busy: " + name + " capacity exhausted");
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            logger.warn("{} operation exceeded {} ms and was cancelled", name, timeout.toMillis());
+            throw new BulkheadTimeoutException("Service busy: " + name + " operation timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Time left before the caller of the current bulkhead operation gives up, or null outside a bulkhead
+     */
+    public static Duration remainingTime() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? null : Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-bulkhead-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.scheduleplanner.timeblock.bulkhead;
+
+/**
+ * Thrown when a bulkhead is full or an operation exceeds its bulkhead timeout (see {@link BulkheadTimeoutException})
+ */
+public class BulkheadRejectedException extends RuntimeException {
+
+    public BulkheadRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.scheduleplanner.timeblock.bulkhead;
+
+/**
+ * Thrown when an operation was started but its caller stopped waiting for it.
+ * Unlike a plain rejection the operation may have completed, so it is not safe to blindly retry.
+ */
+public class BulkheadTimeoutException extends BulkheadRejectedException {
+
+    public BulkheadTimeoutException(String message) {
+        super(message);
+    }
+}
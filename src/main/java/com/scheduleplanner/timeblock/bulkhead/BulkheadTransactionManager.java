@@ -0,0 +1,33 @@
+package com.scheduleplanner.timeblock.bulkhead;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+
+/**
+ * JPA transaction manager that caps the timeout of transactions started on a bulkhead thread at
+ * the bulkhead deadline, so work whose caller has given up fails its next statement and rolls back
+ * instead of committing long after the caller has given up. Timeouts are whole seconds, so a statement may
+ * still start up to a second past the deadline; a transaction started just before it can still run.
+ */
+public class BulkheadTransactionManager extends JpaTransactionManager {
+
+    public BulkheadTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        Duration remaining = Bulkhead.remainingTime();
+        if (remaining == null) {
+            return timeout;
+        }
+        // Hibernate fails a statement once fewer than one whole second of the timeout is left, so one
+        // extra second lets statements start until the deadline, rounded up to the next second
+        int remainingSeconds = (int) Math.ceil(remaining.toMillis() / 1000.0) + 1;
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+}
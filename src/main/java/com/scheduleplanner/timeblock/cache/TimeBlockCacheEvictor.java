@@ -0,0 +1,50 @@
+package com.scheduleplanner.timeblock.cache;
+
+import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Evicts TimeBlock entries from the Hibernate second-level and query caches.
+ * Writes made through the persistence context keep the caches correct on their own; this is for
+ * writes Hibernate does not see (plain JDBC, other services) and for operational resets.
+ */
+@Component
+public class TimeBlockCacheEvictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeBlockCacheEvictor.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evict the given time blocks and the per-student query results that may reference them
+     */
+    public void evictTimeBlocks(Collection<Integer> ids) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        for (Integer id : ids) {
+            cache.evict(TimeBlock.class, id);
+        }
+        evictRegion(TimeBlockRepository.STUDENT_QUERY_REGION);
+    }
+
+    /**
+     * Evict every entry in a cache region, entity or query
+     */
+    public void evictRegion(String regionName) {
+        logger.info("Evicting cache region: {}", regionName);
+        org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (TimeBlock.class.getName().equals(regionName)) {
+            cache.evictEntityData(TimeBlock.class);
+        } else {
+            cache.evictQueryRegion(regionName);
+        }
+    }
+}
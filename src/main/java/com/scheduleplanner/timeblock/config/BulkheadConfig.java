@@ -0,0 +1,64 @@
+package com.scheduleplanner.timeblock.config;
+
+import com.scheduleplanner.timeblock.bulkhead.Bulkhead;
+import com.scheduleplanner.timeblock.bulkhead.BulkheadTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionManager;
+
+import java.time.Duration;
+
+/**
+ * Separate bulkheads for read and write traffic, so a burst of one cannot take all the pool
+ * connections from the other. Servlet threads still block while they wait for a bulkhead result.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadConfig.class);
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead readBulkhead(
+            @Value("${timeblock.bulkhead.read.threads:3}") int threads,
+            @Value("${timeblock.bulkhead.read.queue-capacity:20}") int queueCapacity,
+            @Value("${timeblock.bulkhead.read.timeout:5s}") Duration timeout,
+            @Value("${timeblock.bulkhead.write.threads:2}") int writeThreads,
+            MeterRegistry meterRegistry) {
+        if (threads + writeThreads > maximumPoolSize) {
+            logger.warn("Read ({}) and write ({}) bulkhead threads exceed the connection pool size ({}); "
+                    + "the bulkheads will contend for connections", threads, writeThreads, maximumPoolSize);
+        }
+        return new Bulkhead("read", threads, queueCapacity, timeout, meterRegistry);
+    }
+
+    /**
+     * Replaces the auto-configured JPA transaction manager so transactions respect bulkhead deadlines
+     */
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new BulkheadTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead writeBulkhead(
+            @Value("${timeblock.bulkhead.write.threads:2}") int threads,
+            @Value("${timeblock.bulkhead.write.queue-capacity:10}") int queueCapacity,
+            @Value("${timeblock.bulkhead.write.timeout:10s}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        return new Bulkhead("write", threads, queueCapacity, timeout, meterRegistry);
+    }
+}
@@ -0,0 +1,111 @@
+package com.scheduleplanner.timeblock.config;
+
+import com.scheduleplanner.timeblock.shard.HashShardRouter;
+import com.scheduleplanner.timeblock.shard.RangeShardRouter;
+import com.scheduleplanner.timeblock.shard.ShardIdGenerator;
+import com.scheduleplanner.timeblock.shard.ShardRouter;
+import com.scheduleplanner.timeblock.shard.ShardRoutingDataSource;
+import com.scheduleplanner.timeblock.shard.ShardSchemaInitializer;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shard routing for time blocks. With sharding disabled there is a single shard and the
+ * auto-configured spring.datasource is used unchanged.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        if (properties.getShardCount() > properties.getMaxShards()) {
+            throw new IllegalStateException(properties.getShardCount() + " shards are configured but max-shards is "
+                    + properties.getMaxShards());
+        }
+        if ("range".equalsIgnoreCase(properties.getStrategy())) {
+            return new RangeShardRouter(properties.getRangeBounds());
+        }
+        if (!"hash".equalsIgnoreCase(properties.getStrategy())) {
+            throw new IllegalStateException("Unknown sharding strategy: " + properties.getStrategy());
+        }
+        return new HashShardRouter(properties.getBuckets());
+    }
+
+    /**
+     * The ID generator needs max-shards to find each shard's ID range, sharded or not
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardIdGeneratorSettings(ShardingProperties properties) {
+        return hibernateProperties -> hibernateProperties.put(ShardIdGenerator.MAX_SHARDS_SETTING, properties.getMaxShards());
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "timeblock.sharding.enabled", havingValue = "true")
+    static class ShardedDataSourceConfig {
+
+        /**
+         * Pools get Hikari's Micrometer metrics
+         */
+        @Bean
+        public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+            if (properties.getShards().isEmpty()) {
+                throw new IllegalStateException("Sharding is enabled but no timeblock.sharding.shards are configured");
+            }
+            List<HikariDataSource> pools = new ArrayList<>();
+            for (int i = 0; i < properties.getShards().size(); i++) {
+                ShardingProperties.Shard shard = properties.getShards().get(i);
+                HikariConfig config = new HikariConfig();
+                config.setPoolName("timeblock-shard-" + i);
+                config.setJdbcUrl(shard.getUrl());
+                config.setUsername(shard.getUsername());
+                config.setPassword(shard.getPassword());
+                if (shard.getDriverClassName() != null) {
+                    config.setDriverClassName(shard.getDriverClassName());
+                }
+                config.setMaximumPoolSize(shard.getMaximumPoolSize());
+                config.setMinimumIdle(shard.getMinimumIdle());
+                meterRegistry.ifAvailable(registry ->
+                        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                pools.add(new HikariDataSource(config));
+            }
+            return new ShardRoutingDataSource(pools);
+        }
+
+        /**
+         * Connections are only fetched at the first statement, by which point the service has chosen the shard
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+
+        @Bean
+        public ShardSchemaInitializer shardSchemaInitializer(ShardRoutingDataSource shardRoutingDataSource) {
+            return new ShardSchemaInitializer(shardRoutingDataSource);
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaInitializer shardSchemaInitializer) {
+            return properties -> properties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.scheduleplanner.timeblock.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shard layout for time blocks, bound from timeblock.sharding.*
+ */
+@ConfigurationProperties(prefix = "timeblock.sharding")
+public class ShardingProperties {
+
+    /**
+     * Route time blocks over the shards below instead of the single spring.datasource
+     */
+    private boolean enabled = false;
+
+    /**
+     * "hash" or "range"
+     */
+    private String strategy = "hash";
+
+    /**
+     * Exclusive upper student ID bound of every bucket but the last, for range sharding
+     */
+    private List<Integer> rangeBounds = new ArrayList<>();
+
+    /**
+     * Virtual buckets students hash into, for hash sharding; fixed once data exists
+     */
+    private int buckets = 1024;
+
+    /**
+     * Most shards the layout can grow to; time block ID ranges are sized from it, so it is fixed once data exists
+     */
+    private int maxShards = 64;
+
+    /**
+     * How often student-to-shard overrides written by other instances are reloaded
+     */
+    private Duration directoryRefresh = Duration.ofSeconds(30);
+
+    /**
+     * Threads used to query shards in parallel
+     */
+    private int scatterThreads = 4;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 5;
+        private int minimumIdle = 2;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
+    public List<Integer> getRangeBounds() {
+        return rangeBounds;
+    }
+
+    public void setRangeBounds(List<Integer> rangeBounds) {
+        this.rangeBounds = rangeBounds;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(int buckets) {
+        this.buckets = buckets;
+    }
+
+    public int getMaxShards() {
+        return maxShards;
+    }
+
+    public void setMaxShards(int maxShards) {
+        this.maxShards = maxShards;
+    }
+
+    public Duration getDirectoryRefresh() {
+        return directoryRefresh;
+    }
+
+    public void setDirectoryRefresh(Duration directoryRefresh) {
+        this.directoryRefresh = directoryRefresh;
+    }
+
+    public int getScatterThreads() {
+        return scatterThreads;
+    }
+
+    public void setScatterThreads(int scatterThreads) {
+        this.scatterThreads = scatterThreads;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Number of shards in effect; a disabled configuration is a single shard
+     */
+    public int getShardCount() {
+        return enabled ? shards.size() : 1;
+    }
+}
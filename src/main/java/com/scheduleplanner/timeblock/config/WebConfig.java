@@ -0,0 +1,27 @@
+package com.scheduleplanner.timeblock.config;
+
+import com.scheduleplanner.timeblock.ratelimit.RateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Value("${timeblock.ratelimit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (rateLimitEnabled) {
+            registry.addInterceptor(rateLimitInterceptor)
+                    .addPathPatterns("/api/timeblocks/**")
+                    .excludePathPatterns("/api/timeblocks/health");
+        }
+    }
+}
@@ -1,7 +1,20 @@
 package com.scheduleplanner.timeblock.controller;
 
+import com.scheduleplanner.timeblock.bulkhead.Bulkhead;
+import com.scheduleplanner.timeblock.bulkhead.BulkheadRejectedException;
+import com.scheduleplanner.timeblock.bulkhead.BulkheadTimeoutException;
+import com.scheduleplanner.timeblock.dto.ImportReportDTO;
+import com.scheduleplanner.timeblock.dto.PlacementRequestDTO;
+import com.scheduleplanner.timeblock.dto.PlacementSuggestionDTO;
+import com.scheduleplanner.timeblock.dto.PurgeJobDTO;
 import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
+import com.scheduleplanner.timeblock.service.CalendarFeedService;
+import com.scheduleplanner.timeblock.service.PlacementService;
+import com.scheduleplanner.timeblock.service.ScheduleImportService;
+import com.scheduleplanner.timeblock.service.StudentPurgeService;
+import com.scheduleplanner.timeblock.service.TimeBlockArchiveService;
 import com.scheduleplanner.timeblock.service.TimeBlockService;
+import com.scheduleplanner.timeblock.shard.ShardMovingException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,16 +23,25 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/timeblocks")
@@ -36,27 +58,86 @@ public class TimeBlockController {
     @Autowired
     private TimeBlockService timeBlockService;
     
+    @Autowired
+    private ScheduleImportService scheduleImportService;
+    
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+    
+    @Autowired
+    private StudentPurgeService studentPurgeService;
+    
+    @Autowired
+    private PlacementService placementService;
+    
+    @Autowired
+    private TimeBlockArchiveService timeBlockArchiveService;
+    
+    @Autowired
+    @Qualifier("readBulkhead")
+    private Bulkhead readBulkhead;
+    
+    @Autowired
+    @Qualifier("writeBulkhead")
+    private Bulkhead writeBulkhead;
+    
     /**
      * Get all time blocks for a specific student
      */
-    @Operation(summary = "Get time blocks for student", description = "Retrieves all time blocks for a specific student")
+    @Operation(summary = "Get time blocks for student", description = "Retrieves all time blocks for a specific student, optionally including blocks from past terms that have been archived")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved time blocks"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/student/{studentId}")
     public ResponseEntity<List<TimeBlockDTO>> getTimeBlocksByStudentId(
-            @Parameter(description = "Student ID", required = true) @PathVariable Integer studentId) {
+            @Parameter(description = "Student ID", required = true) @PathVariable Integer studentId,
+            @Parameter(description = "Also return archived blocks from past terms") @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            logger.info("Fetching time blocks for student: {}", studentId);
-            List<TimeBlockDTO> timeBlocks = timeBlockService.getTimeBlocksByStudentId(studentId);
+            logger.info("Fetching time blocks for student: {} (includeArchived={})", studentId, includeArchived);
+            List<TimeBlockDTO> timeBlocks = readBulkhead.execute(() -> includeArchived
+                    ? timeBlockArchiveService.getTimeBlocksIncludingArchived(studentId)
+                    : timeBlockService.getTimeBlocksByStudentId(studentId));
             return ResponseEntity.ok(timeBlocks);
+        } catch (BulkheadRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             logger.error("Error fetching time blocks for student {}: {}", studentId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Get all time blocks for several students
+     */
+    @Operation(summary = "Get time blocks for students", description = "Retrieves all time blocks for several students, ordered by student, day and start time")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved time blocks"),
+        @ApiResponse(responseCode = "400", description = "No or too many student IDs"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/students")
+    public ResponseEntity<?> getTimeBlocksByStudentIds(
+            @Parameter(description = "Student IDs", required = true) @RequestParam List<Integer> studentIds) {
+        try {
+            logger.info("Fetching time blocks for {} students", studentIds.size());
+            List<TimeBlockDTO> timeBlocks = readBulkhead.execute(() -> timeBlockService.getTimeBlocksByStudentIds(studentIds));
+            return ResponseEntity.ok(timeBlocks);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Multi-student query rejected: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (BulkheadRejectedException e) {
+            return serviceBusy(e);
+        } catch (Exception e) {
+            logger.error("Error fetching time blocks for students {}: {}", studentIds, e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error fetching time blocks: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     /**
      * Get time blocks for a student on a specific day
      */
@@ -71,8 +152,10 @@ public class TimeBlockController {
             @Parameter(description = "Day of week", required = true) @PathVariable String day) {
         try {
             logger.info("Fetching time blocks for student: {} on day: {}", studentId, day);
-            List<TimeBlockDTO> timeBlocks = timeBlockService.getTimeBlocksByStudentIdAndDay(studentId, day);
+            List<TimeBlockDTO> timeBlocks = readBulkhead.execute(() -> timeBlockService.getTimeBlocksByStudentIdAndDay(studentId, day));
             return ResponseEntity.ok(timeBlocks);
+        } catch (BulkheadRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             logger.error("Error fetching time blocks for student {} on day {}: {}", studentId, day, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -93,9 +176,11 @@ public class TimeBlockController {
             @Parameter(description = "Time Block ID", required = true) @PathVariable Integer id) {
         try {
             logger.info("Fetching time block with ID: {}", id);
-            Optional<TimeBlockDTO> timeBlock = timeBlockService.getTimeBlockById(id);
+            Optional<TimeBlockDTO> timeBlock = readBulkhead.execute(() -> timeBlockService.getTimeBlockById(id));
             return timeBlock.map(ResponseEntity::ok)
                           .orElse(ResponseEntity.notFound().build());
+        } catch (BulkheadRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             logger.error("Error fetching time block with ID {}: {}", id, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -115,13 +200,17 @@ public class TimeBlockController {
     public ResponseEntity<?> createTimeBlock(@Valid @RequestBody TimeBlockDTO timeBlockDTO) {
         try {
             logger.info("Creating new time block: {}", timeBlockDTO.getTitle());
-            TimeBlockDTO createdTimeBlock = timeBlockService.createTimeBlock(timeBlockDTO);
+            TimeBlockDTO createdTimeBlock = writeBulkhead.execute(() -> timeBlockService.createTimeBlock(timeBlockDTO));
             return ResponseEntity.status(HttpStatus.CREATED).body(createdTimeBlock);
         } catch (IllegalArgumentException e) {
             logger.warn("Time block creation failed due to conflict: {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (BulkheadRejectedException e) {
+            return writeRejected(e);
+        } catch (ShardMovingException e) {
+            return shardMoving(e);
         } catch (Exception e) {
             logger.error("Error creating time block: {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -146,7 +235,7 @@ public class TimeBlockController {
             @Valid @RequestBody TimeBlockDTO timeBlockDTO) {
         try {
             logger.info("Updating time block with ID: {}", id);
-            Optional<TimeBlockDTO> updatedTimeBlock = timeBlockService.updateTimeBlock(id, timeBlockDTO);
+            Optional<TimeBlockDTO> updatedTimeBlock = writeBulkhead.execute(() -> timeBlockService.updateTimeBlock(id, timeBlockDTO));
             return updatedTimeBlock.map(ResponseEntity::ok)
                                   .orElse(ResponseEntity.notFound().build());
         } catch (IllegalArgumentException e) {
@@ -154,6 +243,10 @@ public class TimeBlockController {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (BulkheadRejectedException e) {
+            return writeRejected(e);
+        } catch (ShardMovingException e) {
+            return shardMoving(e);
         } catch (Exception e) {
             logger.error("Error updating time block with ID {}: {}", id, e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -176,7 +269,7 @@ public class TimeBlockController {
             @Parameter(description = "Time Block ID", required = true) @PathVariable Integer id) {
         try {
             logger.info("Deleting time block with ID: {}", id);
-            boolean deleted = timeBlockService.deleteTimeBlock(id);
+            boolean deleted = writeBulkhead.execute(() -> timeBlockService.deleteTimeBlock(id));
             if (deleted) {
                 Map<String, String> response = new HashMap<>();
                 response.put("message", "Time block deleted successfully");
@@ -186,6 +279,10 @@ public class TimeBlockController {
                 error.put("message", "Time block not found");
                 return ResponseEntity.notFound().build();
             }
+        } catch (BulkheadRejectedException e) {
+            return writeRejected(e);
+        } catch (ShardMovingException e) {
+            return shardMoving(e);
         } catch (Exception e) {
             logger.error("Error deleting time block with ID {}: {}", id, e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -194,6 +291,59 @@ public class TimeBlockController {
         }
     }
     
+    /**
+     * Purge all time blocks for a set of students in the background
+     */
+    @Operation(summary = "Purge students' time blocks", description = "Queues a background job deleting all time blocks for the given students")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Purge job accepted; poll the Location for progress"),
+        @ApiResponse(responseCode = "400", description = "No or too many student IDs"),
+        @ApiResponse(responseCode = "503", description = "Purge queue is full"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @DeleteMapping("/students")
+    public ResponseEntity<?> purgeStudents(
+            @Parameter(description = "Student IDs to purge", required = true) @RequestParam List<Integer> studentIds) {
+        try {
+            logger.info("Purging time blocks for {} students", studentIds.size());
+            PurgeJobDTO job = studentPurgeService.submitPurge(studentIds);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/timeblocks/purge-jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Purge request rejected: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Purge queue full");
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Purge queue is full, try again later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").body(error);
+        } catch (Exception e) {
+            logger.error("Error submitting purge job: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error submitting purge job: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    /**
+     * Get the progress of a purge job
+     */
+    @Operation(summary = "Get purge job", description = "Reports the progress of a background purge job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved purge job"),
+        @ApiResponse(responseCode = "404", description = "Purge job not found")
+    })
+    @GetMapping("/purge-jobs/{jobId}")
+    public ResponseEntity<PurgeJobDTO> getPurgeJob(
+            @Parameter(description = "Purge job ID", required = true) @PathVariable String jobId) {
+        return studentPurgeService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     /**
      * Get time blocks by type for a student
      */
@@ -208,14 +358,200 @@ public class TimeBlockController {
             @Parameter(description = "Time block type", required = true) @PathVariable String type) {
         try {
             logger.info("Fetching time blocks for student: {} of type: {}", studentId, type);
-            List<TimeBlockDTO> timeBlocks = timeBlockService.getTimeBlocksByType(studentId, type);
+            List<TimeBlockDTO> timeBlocks = readBulkhead.execute(() -> timeBlockService.getTimeBlocksByType(studentId, type));
             return ResponseEntity.ok(timeBlocks);
+        } catch (BulkheadRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             logger.error("Error fetching time blocks for student {} of type {}: {}", studentId, type, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Import an iCalendar file for a student (multipart upload)
+     */
+    @Operation(summary = "Import iCalendar file", description = "Imports weekly events from an uploaded .ics file as time blocks for a student")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Calendar imported; see the per-event report"),
+        @ApiResponse(responseCode = "400", description = "Malformed calendar file"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/student/{studentId}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importCalendarFile(
+            @Parameter(description = "Student ID", required = true) @PathVariable Integer studentId,
+            @Parameter(description = "iCalendar (.ics) file", required = true) @RequestParam("file") MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return importCalendar(studentId, inputStream);
+        } catch (IOException e) {
+            logger.error("Error reading calendar upload for student {}: {}", studentId, e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error reading calendar: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
+    /**
+     * Import an iCalendar body for a student, parsed straight from the request stream
+     */
+    @Operation(summary = "Import iCalendar stream", description = "Imports weekly events from a text/calendar request body as time blocks for a student")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Calendar imported; see the per-event report"),
+        @ApiResponse(responseCode = "400", description = "Malformed calendar data"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/student/{studentId}/import", consumes = "text/calendar")
+    public ResponseEntity<?> importCalendarStream(
+            @Parameter(description = "Student ID", required = true) @PathVariable Integer studentId,
+            InputStream inputStream) {
+        return importCalendar(studentId, inputStream);
+    }
+    
+    private ResponseEntity<?> importCalendar(Integer studentId, InputStream inputStream) {
+        try {
+            logger.info("Importing calendar for student: {}", studentId);
+            // Read the body on the request thread; only the short store takes a write bulkhead thread
+            ScheduleImportService.ParsedCalendar calendar = scheduleImportService.parse(studentId, inputStream);
+            ImportReportDTO report = writeBulkhead.execute(() -> scheduleImportService.store(calendar));
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException | IOException e) {
+            logger.warn("Calendar import failed for student {}: {}", studentId, e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (BulkheadRejectedException e) {
+            return writeRejected(e);
+        } catch (ShardMovingException e) {
+            return shardMoving(e);
+        } catch (Exception e) {
+            logger.error("Error importing calendar for student {}: {}", studentId, e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error importing calendar: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    /**
+     * iCalendar feed of a student's time blocks for calendar app subscriptions
+     */
+    @Operation(summary = "Get iCalendar feed", description = "Returns a student's time blocks as a subscribable .ics feed; supports If-None-Match")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully rendered feed"),
+        @ApiResponse(responseCode = "304", description = "Feed unchanged since the supplied ETag"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/student/{studentId}/calendar.ics", produces = "text/calendar")
+    public ResponseEntity<byte[]> getCalendarFeed(
+            @Parameter(description = "Student ID", required = true) @PathVariable Integer studentId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            // Answer revalidation from the cache alone when possible
+            String cachedETag = calendarFeedService.getCachedETag(studentId);
+            if (cachedETag != null && eTagMatches(ifNoneMatch, cachedETag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedETag).build();
+            }
+            
+            logger.info("Fetching calendar feed for student: {}", studentId);
+            CalendarFeedService.CalendarFeed feed = readBulkhead.execute(() -> calendarFeedService.getFeed(studentId));
+            if (eTagMatches(ifNoneMatch, feed.getETag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(feed.getETag()).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(feed.getETag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.parseMediaType("text/calendar;charset=UTF-8"))
+                    .body(feed.getContent());
+        } catch (BulkheadRejectedException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            logger.error("Error rendering calendar feed for student {}: {}", studentId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Suggest conflict-free placements for a new time block
+     */
+    @Operation(summary = "Suggest placements", description = "Returns the top-ranked conflict-free slots for a block of the given duration on the allowed days, closest to the preferred window first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully computed suggestions"),
+        @ApiResponse(responseCode = "400", description = "Invalid days, times or limit"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/student/{studentId}/suggestions")
+    public ResponseEntity<?> suggestPlacements(
+            @Parameter(description = "Student ID", required = true) @PathVariable Integer studentId,
+            @Valid @RequestBody PlacementRequestDTO placementRequestDTO) {
+        try {
+            logger.info("Suggesting placements for student: {}", studentId);
+            List<PlacementSuggestionDTO> suggestions = readBulkhead.execute(() -> placementService.suggestPlacements(studentId, placementRequestDTO));
+            return ResponseEntity.ok(suggestions);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Placement request rejected: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (BulkheadRejectedException e) {
+            return serviceBusy(e);
+        } catch (Exception e) {
+            logger.error("Error suggesting placements for student {}: {}", studentId, e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error suggesting placements: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    private <T> ResponseEntity<T> serviceUnavailable(BulkheadRejectedException e) {
+        logger.warn("Request rejected by bulkhead: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+    
+    private ResponseEntity<Map<String, String>> serviceBusy(BulkheadRejectedException e) {
+        logger.warn("Request rejected by bulkhead: {}", e.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+    
+    /**
+     * A write that timed out may still have committed, so the client is not invited to retry it
+     */
+    private ResponseEntity<Map<String, String>> writeRejected(BulkheadRejectedException e) {
+        if (!(e instanceof BulkheadTimeoutException)) {
+            return serviceBusy(e);
+        }
+        logger.warn("Write timed out in bulkhead: {}", e.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("message", e.getMessage() + "; the change may still have been applied, check before retrying");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+    
+    /**
+     * Nothing was written, so the client may retry once this instance's directory has caught up
+     */
+    private ResponseEntity<Map<String, String>> shardMoving(ShardMovingException e) {
+        logger.warn("Write rejected during shard move: {}", e.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+    
+    private boolean eTagMatches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Health check endpoint
      */
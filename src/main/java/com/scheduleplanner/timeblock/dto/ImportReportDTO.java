@@ -0,0 +1,64 @@
+package com.scheduleplanner.timeblock.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReportDTO {
+    
+    private Integer studentId;
+    
+    private int accepted;
+    
+    private int rejected;
+    
+    private List<ImportResultDTO> results = new ArrayList<>();
+    
+    // Constructors
+    public ImportReportDTO() {}
+    
+    public ImportReportDTO(Integer studentId) {
+        this.studentId = studentId;
+    }
+    
+    public void addResult(ImportResultDTO result) {
+        results.add(result);
+        if (ImportResultDTO.ACCEPTED.equals(result.getStatus())) {
+            accepted++;
+        } else {
+            rejected++;
+        }
+    }
+    
+    // Getters and Setters
+    public Integer getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(Integer studentId) {
+        this.studentId = studentId;
+    }
+    
+    public int getAccepted() {
+        return accepted;
+    }
+    
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<ImportResultDTO> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<ImportResultDTO> results) {
+        this.results = results;
+    }
+}
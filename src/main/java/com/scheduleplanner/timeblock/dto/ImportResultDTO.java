@@ -0,0 +1,79 @@
+package com.scheduleplanner.timeblock.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResultDTO {
+    
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String REJECTED = "REJECTED";
+    
+    private String uid;
+    
+    private String summary;
+    
+    private String status;
+    
+    private String message;
+    
+    private List<TimeBlockDTO> timeBlocks = new ArrayList<>();
+    
+    // Constructors
+    public ImportResultDTO() {}
+    
+    public ImportResultDTO(String uid, String summary, String status, String message) {
+        this.uid = uid;
+        this.summary = summary;
+        this.status = status;
+        this.message = message;
+    }
+    
+    public static ImportResultDTO accepted(String uid, String summary) {
+        return new ImportResultDTO(uid, summary, ACCEPTED, null);
+    }
+    
+    public static ImportResultDTO rejected(String uid, String summary, String message) {
+        return new ImportResultDTO(uid, summary, REJECTED, message);
+    }
+    
+    // Getters and Setters
+    public String getUid() {
+        return uid;
+    }
+    
+    public void setUid(String uid) {
+        this.uid = uid;
+    }
+    
+    public String getSummary() {
+        return summary;
+    }
+    
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public List<TimeBlockDTO> getTimeBlocks() {
+        return timeBlocks;
+    }
+    
+    public void setTimeBlocks(List<TimeBlockDTO> timeBlocks) {
+        this.timeBlocks = timeBlocks;
+    }
+}
@@ -0,0 +1,111 @@
+package com.scheduleplanner.timeblock.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class PlacementRequestDTO {
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 5, message = "Duration must be at least 5 minutes")
+    @Max(value = 1440, message = "Duration must fit in a day")
+    private Integer durationMinutes;
+    
+    @NotBlank(message = "Type is required")
+    private String type;
+    
+    // Allowed days, most preferred first; empty means Monday to Friday
+    private List<String> days;
+    
+    private String preferredStart;
+    
+    private String preferredEnd;
+    
+    // Hard bounds of the search within each day
+    private String earliestStart;
+    
+    private String latestEnd;
+    
+    private Integer limit;
+    
+    // Constructors
+    public PlacementRequestDTO() {}
+    
+    public PlacementRequestDTO(Integer durationMinutes, String type, List<String> days,
+                               String preferredStart, String preferredEnd, Integer limit) {
+        this.durationMinutes = durationMinutes;
+        this.type = type;
+        this.days = days;
+        this.preferredStart = preferredStart;
+        this.preferredEnd = preferredEnd;
+        this.limit = limit;
+    }
+    
+    // Getters and Setters
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+    
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public List<String> getDays() {
+        return days;
+    }
+    
+    public void setDays(List<String> days) {
+        this.days = days;
+    }
+    
+    public String getPreferredStart() {
+        return preferredStart;
+    }
+    
+    public void setPreferredStart(String preferredStart) {
+        this.preferredStart = preferredStart;
+    }
+    
+    public String getPreferredEnd() {
+        return preferredEnd;
+    }
+    
+    public void setPreferredEnd(String preferredEnd) {
+        this.preferredEnd = preferredEnd;
+    }
+    
+    public String getEarliestStart() {
+        return earliestStart;
+    }
+    
+    public void setEarliestStart(String earliestStart) {
+        this.earliestStart = earliestStart;
+    }
+    
+    public String getLatestEnd() {
+        return latestEnd;
+    }
+    
+    public void setLatestEnd(String latestEnd) {
+        this.latestEnd = latestEnd;
+    }
+    
+    public Integer getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,79 @@
+package com.scheduleplanner.timeblock.dto;
+
+public class PlacementSuggestionDTO {
+    
+    private int rank;
+    
+    private String day;
+    
+    private String startTime;
+    
+    private String endTime;
+    
+    private String type;
+    
+    // Minutes the placement starts before or ends after the preferred window; 0 when fully inside
+    private int distanceFromPreferred;
+    
+    // Constructors
+    public PlacementSuggestionDTO() {}
+    
+    public PlacementSuggestionDTO(int rank, String day, String startTime, String endTime, String type,
+                                  int distanceFromPreferred) {
+        this.rank = rank;
+        this.day = day;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.type = type;
+        this.distanceFromPreferred = distanceFromPreferred;
+    }
+    
+    // Getters and Setters
+    public int getRank() {
+        return rank;
+    }
+    
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+    
+    public String getDay() {
+        return day;
+    }
+    
+    public void setDay(String day) {
+        this.day = day;
+    }
+    
+    public String getStartTime() {
+        return startTime;
+    }
+    
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+    
+    public String getEndTime() {
+        return endTime;
+    }
+    
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public int getDistanceFromPreferred() {
+        return distanceFromPreferred;
+    }
+    
+    public void setDistanceFromPreferred(int distanceFromPreferred) {
+        this.distanceFromPreferred = distanceFromPreferred;
+    }
+}
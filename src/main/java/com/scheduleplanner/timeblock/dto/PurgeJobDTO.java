@@ -0,0 +1,102 @@
+package com.scheduleplanner.timeblock.dto;
+
+import java.time.LocalDateTime;
+
+public class PurgeJobDTO {
+    
+    private String jobId;
+    
+    private String status;
+    
+    private int totalStudents;
+    
+    private int processedStudents;
+    
+    private long deletedTimeBlocks;
+    
+    private LocalDateTime submittedAt;
+    
+    private LocalDateTime finishedAt;
+    
+    private String error;
+    
+    // Constructors
+    public PurgeJobDTO() {}
+    
+    public PurgeJobDTO(String jobId, String status, int totalStudents, int processedStudents, long deletedTimeBlocks,
+                       LocalDateTime submittedAt, LocalDateTime finishedAt, String error) {
+        this.jobId = jobId;
+        this.status = status;
+        this.totalStudents = totalStudents;
+        this.processedStudents = processedStudents;
+        this.deletedTimeBlocks = deletedTimeBlocks;
+        this.submittedAt = submittedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+    
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public int getTotalStudents() {
+        return totalStudents;
+    }
+    
+    public void setTotalStudents(int totalStudents) {
+        this.totalStudents = totalStudents;
+    }
+    
+    public int getProcessedStudents() {
+        return processedStudents;
+    }
+    
+    public void setProcessedStudents(int processedStudents) {
+        this.processedStudents = processedStudents;
+    }
+    
+    public long getDeletedTimeBlocks() {
+        return deletedTimeBlocks;
+    }
+    
+    public void setDeletedTimeBlocks(long deletedTimeBlocks) {
+        this.deletedTimeBlocks = deletedTimeBlocks;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,55 @@
+package com.scheduleplanner.timeblock.dto;
+
+public class ShardMoveDTO {
+    
+    private Integer studentId;
+    
+    private int fromShard;
+    
+    private int toShard;
+    
+    private int movedTimeBlocks;
+    
+    // Constructors
+    public ShardMoveDTO() {}
+    
+    public ShardMoveDTO(Integer studentId, int fromShard, int toShard, int movedTimeBlocks) {
+        this.studentId = studentId;
+        this.fromShard = fromShard;
+        this.toShard = toShard;
+        this.movedTimeBlocks = movedTimeBlocks;
+    }
+    
+    // Getters and Setters
+    public Integer getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(Integer studentId) {
+        this.studentId = studentId;
+    }
+    
+    public int getFromShard() {
+        return fromShard;
+    }
+    
+    public void setFromShard(int fromShard) {
+        this.fromShard = fromShard;
+    }
+    
+    public int getToShard() {
+        return toShard;
+    }
+    
+    public void setToShard(int toShard) {
+        this.toShard = toShard;
+    }
+    
+    public int getMovedTimeBlocks() {
+        return movedTimeBlocks;
+    }
+    
+    public void setMovedTimeBlocks(int movedTimeBlocks) {
+        this.movedTimeBlocks = movedTimeBlocks;
+    }
+}
@@ -1,5 +1,6 @@
 package com.scheduleplanner.timeblock.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -31,6 +32,10 @@ public class TimeBlockDTO {
     
     private Integer weeks;
     
+    // Only set (to true) on blocks read back from the archive
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean archived;
+    
     // Constructors
     public TimeBlockDTO() {}
     
@@ -128,4 +133,12 @@ public class TimeBlockDTO {
     public void setWeeks(Integer weeks) {
         this.weeks = weeks;
     }
-} 
\ No newline at end of file
+    
+    public Boolean getArchived() {
+        return archived;
+    }
+    
+    public void setArchived(Boolean archived) {
+        this.archived = archived;
+    }
+}
@@ -0,0 +1,97 @@
+package com.scheduleplanner.timeblock.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A time block whose term has ended, moved out of time_blocks by the archive job.
+ * The block itself is kept as a JSON payload (gzip-compressed when {@code compressed}),
+ * with only the columns needed to find and retire it alongside.
+ */
+@Entity
+@Table(name = "archived_time_blocks", indexes = @Index(name = "idx_archived_time_blocks_student", columnList = "student_id"))
+public class ArchivedTimeBlock {
+    
+    // Same ID the block had in time_blocks
+    @Id
+    @Column(name = "time_block_id")
+    private Integer id;
+    
+    @Column(name = "student_id", nullable = false)
+    private Integer studentId;
+    
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    @Column(nullable = false)
+    private boolean compressed;
+    
+    @Lob
+    @Column(nullable = false, length = 65536)
+    private byte[] payload;
+    
+    // Constructors
+    public ArchivedTimeBlock() {}
+    
+    public ArchivedTimeBlock(Integer id, Integer studentId, LocalDateTime expiresAt, LocalDateTime archivedAt,
+                             boolean compressed, byte[] payload) {
+        this.id = id;
+        this.studentId = studentId;
+        this.expiresAt = expiresAt;
+        this.archivedAt = archivedAt;
+        this.compressed = compressed;
+        this.payload = payload;
+    }
+    
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+    
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    
+    public Integer getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(Integer studentId) {
+        this.studentId = studentId;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+    
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+    
+    public boolean isCompressed() {
+        return compressed;
+    }
+    
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+    
+    public byte[] getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+}
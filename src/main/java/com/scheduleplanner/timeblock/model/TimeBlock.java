@@ -1,16 +1,22 @@
 package com.scheduleplanner.timeblock.model;
 
+import com.scheduleplanner.timeblock.shard.ShardedId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "time_blocks")
+@Table(name = "time_blocks", indexes = @Index(name = "idx_time_blocks_expires_at", columnList = "expires_at"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class TimeBlock {
     
+    // Allocated from the shard's ID range; kept when the student is moved to another shard
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedId
     @Column(name = "time_block_id")
     private Integer id;
     
@@ -53,6 +59,10 @@ public class TimeBlock {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // End of the block's term (createdAt + weeks); expired blocks are moved to the archive
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
     // Constructors
     public TimeBlock() {}
     
@@ -73,11 +83,21 @@ public class TimeBlock {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        expiresAt = computeExpiresAt(createdAt, weeks);
     }
     
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        expiresAt = computeExpiresAt(createdAt, weeks);
+    }
+    
+    /**
+     * End of the term of a block created at the given time and spanning the given number of weeks
+     */
+    public static LocalDateTime computeExpiresAt(LocalDateTime createdAt, Integer weeks) {
+        LocalDateTime start = createdAt != null ? createdAt : LocalDateTime.now();
+        return start.plusWeeks(weeks != null && weeks > 0 ? weeks : 1);
     }
     
     // Getters and Setters
@@ -177,6 +197,14 @@ public class TimeBlock {
         this.updatedAt = updatedAt;
     }
     
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
     @Override
     public String toString() {
         return "TimeBlock{" +
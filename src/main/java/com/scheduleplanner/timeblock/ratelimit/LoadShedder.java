@@ -0,0 +1,153 @@
+package com.scheduleplanner.timeblock.ratelimit;
+
+import com.scheduleplanner.timeblock.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive admission control.
+ * The in-flight limit follows how long operations wait in the bulkhead queues (AIMD): each sample
+ * interval it grows by one while the mean queue wait stays under the target, and is cut
+ * multiplicatively as soon as waits get long or a bulkhead rejects or times out work. The
+ * bulkheads, not the connection pools, are where requests queue: their threads never outnumber
+ * the pool's connections, so connection acquire time stays flat under load.
+ * Requests over the limit are refused up front instead of queuing for a bulkhead.
+ */
+@Component
+public class LoadShedder {
+
+    /** Counters that signal overload whenever they move */
+    private static final List<String> OVERLOAD_COUNTERS = List.of(Bulkhead.REJECTED_COUNTER, Bulkhead.TIMEOUT_COUNTER);
+
+    private static final double DECREASE_FACTOR = 0.75;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong nextSampleNanos = new AtomicLong();
+
+    /** Last seen count and total (nanos) per meter, to turn cumulative meters into per-interval values */
+    private final Map<Meter.Id, double[]> previousSamples = new ConcurrentHashMap<>();
+
+    private volatile double limit;
+
+    private volatile double queueWaitMillis;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${timeblock.loadshed.max-in-flight:50}")
+    private int maxInFlight;
+
+    @Value("${timeblock.loadshed.min-in-flight:5}")
+    private int minInFlight;
+
+    @Value("${timeblock.loadshed.target-queue-wait:20ms}")
+    private Duration targetQueueWait;
+
+    @Value("${timeblock.loadshed.sample-interval:500ms}")
+    private Duration sampleInterval;
+
+    @PostConstruct
+    void init() {
+        limit = maxInFlight;
+        nextSampleNanos.set(System.nanoTime() + sampleInterval.toNanos());
+        Gauge.builder("timeblock.requests.in_flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted to the time block API")
+                .register(meterRegistry);
+        Gauge.builder("timeblock.requests.in_flight_limit", this, LoadShedder::getLimit)
+                .description("Current adaptive in-flight limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Try to admit a request; every successful call must be paired with {@link #exit()}
+     *
+     * @return null when admitted, otherwise the reason the request was shed
+     */
+    public String tryEnter() {
+        sampleIfDue();
+        int currentLimit = getLimit();
+        if (inFlight.incrementAndGet() > currentLimit) {
+            inFlight.decrementAndGet();
+            return "Too many requests in flight (limit " + currentLimit + ", bulkhead queue wait "
+                    + Math.round(queueWaitMillis) + " ms)";
+        }
+        return null;
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Additive increase while queue wait is on target, multiplicative decrease when it is not
+     */
+    void adjust(double waitMillis) {
+        queueWaitMillis = waitMillis;
+        if (waitMillis > targetQueueWait.toMillis()) {
+            limit = Math.max(minInFlight, limit * DECREASE_FACTOR);
+        } else {
+            limit = Math.min(maxInFlight, limit + 1);
+        }
+    }
+
+    /**
+     * Mean queue wait since the last sample on the slowest bulkhead; infinite if any bulkhead rejected or timed out work
+     */
+    double sampleQueueWaitMillis() {
+        boolean overloaded = false;
+        for (String name : OVERLOAD_COUNTERS) {
+            for (Counter counter : meterRegistry.find(name).counters()) {
+                double[] previous = previousSamples.put(counter.getId(), new double[]{counter.count(), 0});
+                if (previous != null && counter.count() > previous[0]) {
+                    overloaded = true;
+                }
+            }
+        }
+        double worst = 0;
+        for (Timer timer : meterRegistry.find(Bulkhead.QUEUE_WAIT_TIMER).timers()) {
+            double count = timer.count();
+            double totalNanos = timer.totalTime(TimeUnit.NANOSECONDS);
+            double[] previous = previousSamples.put(timer.getId(), new double[]{count, totalNanos});
+            if (previous != null && count > previous[0]) {
+                double meanNanos = (totalNanos - previous[1]) / (count - previous[0]);
+                worst = Math.max(worst, meanNanos / TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        return overloaded ? Double.POSITIVE_INFINITY : worst;
+    }
+
+    /**
+     * At most one caller per interval takes the sample, the rest go straight through
+     */
+    private void sampleIfDue() {
+        long now = System.nanoTime();
+        long due = nextSampleNanos.get();
+        if (now - due >= 0 && nextSampleNanos.compareAndSet(due, now + sampleInterval.toNanos())) {
+            adjust(sampleQueueWaitMillis());
+        }
+    }
+}
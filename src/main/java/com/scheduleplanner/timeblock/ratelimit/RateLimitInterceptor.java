@@ -0,0 +1,141 @@
+package com.scheduleplanner.timeblock.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds load and applies per-client and per-student token buckets in front of the time block API.
+ * Rate-limited requests get 429 and shed requests get 503, both with a Retry-After header.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    private static final String ADMITTED_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".admitted";
+
+    @Autowired
+    private LoadShedder loadShedder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${timeblock.ratelimit.client.tokens-per-second:20}")
+    private double clientTokensPerSecond;
+
+    @Value("${timeblock.ratelimit.client.capacity:40}")
+    private int clientCapacity;
+
+    @Value("${timeblock.ratelimit.student.tokens-per-second:5}")
+    private double studentTokensPerSecond;
+
+    @Value("${timeblock.ratelimit.student.capacity:10}")
+    private int studentCapacity;
+
+    @Value("${timeblock.ratelimit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${timeblock.loadshed.retry-after-seconds:1}")
+    private long shedRetryAfterSeconds;
+
+    private RateLimiter clientLimiter;
+
+    private RateLimiter studentLimiter;
+
+    @PostConstruct
+    void createLimiters() {
+        clientLimiter = new RateLimiter(clientTokensPerSecond, clientCapacity, maxKeys);
+        studentLimiter = new RateLimiter(studentTokensPerSecond, studentCapacity, maxKeys);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        // Client address honours X-Forwarded-For when server.forward-headers-strategy is set
+        String client = request.getRemoteAddr();
+        long clientWait = clientLimiter.tryConsume(client);
+        if (clientWait > 0) {
+            logger.debug("Rate limited client {}", client);
+            return reject(response, HttpStatus.TOO_MANY_REQUESTS, "client", "Too many requests from this client", clientWait);
+        }
+
+        String studentId = studentId(request);
+        if (studentId != null) {
+            long studentWait = studentLimiter.tryConsume(studentId);
+            if (studentWait > 0) {
+                logger.debug("Rate limited requests for student {}", studentId);
+                return reject(response, HttpStatus.TOO_MANY_REQUESTS, "student", "Too many requests for this student", studentWait);
+            }
+        }
+
+        String shedReason = loadShedder.tryEnter();
+        if (shedReason != null) {
+            logger.warn("Shedding request {} {}: {}", request.getMethod(), request.getRequestURI(), shedReason);
+            return reject(response, HttpStatus.SERVICE_UNAVAILABLE, "overload", shedReason,
+                    TimeUnit.SECONDS.toNanos(shedRetryAfterSeconds));
+        }
+        request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            loadShedder.exit();
+        }
+    }
+
+    /**
+     * The request's student ID in canonical form, or null when there is none or it is not an integer
+     * (such requests fail binding anyway and must not each get a bucket)
+     */
+    private String studentId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String value = variables instanceof Map<?, ?> map && map.get("studentId") != null
+                ? map.get("studentId").toString()
+                : request.getParameter("studentId");
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.toString(Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, HttpStatus status, String reason, String message,
+                           long retryAfterNanos) throws IOException {
+        meterRegistry.counter("timeblock.requests.rejected", "reason", reason).increment();
+        long retryAfterSeconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+        return false;
+    }
+}
@@ -0,0 +1,105 @@
+package com.scheduleplanner.timeblock.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by an arbitrary string (client address, student ID, ...).
+ * At most maxKeys buckets are kept. Once they are all taken, refilled buckets are swept out at most
+ * once per refill period, and keys that still find no room share one overflow bucket, so a flood
+ * of new keys is limited as a whole instead of growing the map.
+ */
+public class RateLimiter {
+
+    private final double tokensPerSecond;
+    private final int capacity;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final TokenBucket overflow;
+    private final long sweepIntervalNanos;
+    private final AtomicLong nextSweepNanos;
+
+    public RateLimiter(double tokensPerSecond, int capacity, int maxKeys) {
+        this(tokensPerSecond, capacity, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(double tokensPerSecond, int capacity, int maxKeys, LongSupplier nanoClock) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.capacity = capacity;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+        this.overflow = new TokenBucket(tokensPerSecond, capacity, nanoClock);
+        // A bucket left alone this long is full again
+        this.sweepIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * capacity / tokensPerSecond);
+        this.nextSweepNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Take one token for the key
+     *
+     * @return 0 when allowed, otherwise the nanoseconds until the key may retry
+     */
+    public long tryConsume(String key) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = admit(key);
+        }
+        return bucket.tryConsume();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    // Private helper methods
+
+    private TokenBucket admit(String key) {
+        if (!reserveSlot()) {
+            sweepIfDue();
+            if (!reserveSlot()) {
+                return overflow;
+            }
+        }
+        TokenBucket created = new TokenBucket(tokensPerSecond, capacity, nanoClock);
+        TokenBucket existing = buckets.putIfAbsent(key, created);
+        if (existing != null) {
+            size.decrementAndGet();
+            return existing;
+        }
+        return created;
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = size.get();
+            if (current >= maxKeys) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drop full buckets, which behave exactly like fresh ones; at most one caller per interval scans
+     */
+    private void sweepIfDue() {
+        long now = nanoClock.getAsLong();
+        long due = nextSweepNanos.get();
+        if (now - due < 0 || !nextSweepNanos.compareAndSet(due, now + sweepIntervalNanos)) {
+            return;
+        }
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            if (entry.getValue().isFull() && buckets.remove(entry.getKey(), entry.getValue())) {
+                size.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.scheduleplanner.timeblock.repository;
+
+import com.scheduleplanner.timeblock.model.ArchivedTimeBlock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedTimeBlockRepository extends JpaRepository<ArchivedTimeBlock, Integer> {
+    
+    /**
+     * Find all archived time blocks for a specific student
+     */
+    List<ArchivedTimeBlock> findByStudentIdOrderByIdAsc(Integer studentId);
+    
+    /**
+     * Count archived time blocks for a student
+     */
+    long countByStudentId(Integer studentId);
+    
+    /**
+     * Delete all archived time blocks for the given students in a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM ArchivedTimeBlock atb WHERE atb.studentId IN :studentIds")
+    int deleteByStudentIdIn(@Param("studentIds") Collection<Integer> studentIds);
+    
+    /**
+     * Find a page of archived time block IDs belonging to any of the given students
+     */
+    @Query("SELECT atb.id FROM ArchivedTimeBlock atb WHERE atb.studentId IN :studentIds ORDER BY atb.id")
+    List<Integer> findIdsByStudentIdIn(@Param("studentIds") Collection<Integer> studentIds, Pageable pageable);
+    
+    /**
+     * Delete archived time blocks by ID in a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM ArchivedTimeBlock atb WHERE atb.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+}
@@ -1,45 +1,62 @@
 package com.scheduleplanner.timeblock.repository;
 
 import com.scheduleplanner.timeblock.model.TimeBlock;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TimeBlockRepository extends JpaRepository<TimeBlock, Integer> {
     
+    /**
+     * Query cache region shared by the per-student finders
+     */
+    String STUDENT_QUERY_REGION = "timeblock.student-queries";
+    
     /**
      * Find all time blocks for a specific student
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = STUDENT_QUERY_REGION)
+    })
     List<TimeBlock> findByStudentIdOrderByDayAscStartTimeAsc(Integer studentId);
     
     /**
      * Find time blocks for a student on a specific day
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = STUDENT_QUERY_REGION)
+    })
     List<TimeBlock> findByStudentIdAndDayOrderByStartTimeAsc(Integer studentId, String day);
     
     /**
      * Find time blocks by type for a student
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = STUDENT_QUERY_REGION)
+    })
     List<TimeBlock> findByStudentIdAndType(Integer studentId, String type);
     
     /**
-     * Check for conflicting time blocks for a student
+     * Find all time blocks for a student, bypassing the query cache for conflict checks
      */
-    @Query("SELECT tb FROM TimeBlock tb WHERE tb.studentId = :studentId " +
-           "AND tb.day = :day " +
-           "AND ((tb.startTime <= :startTime AND tb.endTime > :startTime) " +
-           "OR (tb.startTime < :endTime AND tb.endTime >= :endTime) " +
-           "OR (tb.startTime >= :startTime AND tb.endTime <= :endTime)) " +
-           "AND (:excludeId IS NULL OR tb.id != :excludeId)")
-    List<TimeBlock> findConflictingTimeBlocks(@Param("studentId") Integer studentId,
-                                            @Param("day") String day,
-                                            @Param("startTime") String startTime,
-                                            @Param("endTime") String endTime,
-                                            @Param("excludeId") Integer excludeId);
+    List<TimeBlock> findByStudentId(Integer studentId);
     
     /**
      * Find time blocks within a time range for a student
@@ -51,13 +68,70 @@ public interface TimeBlockRepository extends JpaRepository<TimeBlock, Integer> {
                                         @Param("startTime") String startTime,
                                         @Param("endTime") String endTime);
     
+    /**
+     * Find the student a time block belongs to, read from the database rather than the cache
+     */
+    @Query("SELECT tb.studentId FROM TimeBlock tb WHERE tb.id = :id")
+    Optional<Integer> findStudentIdById(@Param("id") Integer id);
+    
     /**
      * Count time blocks for a student
      */
     long countByStudentId(Integer studentId);
     
     /**
-     * Delete all time blocks for a student
+     * Delete all time blocks for a student in a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM TimeBlock tb WHERE tb.studentId = :studentId")
+    int deleteByStudentId(@Param("studentId") Integer studentId);
+    
+    /**
+     * Find all time blocks for several students, ordered by student, day and start time
+     */
+    List<TimeBlock> findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(Collection<Integer> studentIds);
+    
+    /**
+     * Find a page of time block IDs belonging to any of the given students
+     */
+    @Query("SELECT tb.id FROM TimeBlock tb WHERE tb.studentId IN :studentIds ORDER BY tb.id")
+    List<Integer> findIdsByStudentIdIn(@Param("studentIds") Collection<Integer> studentIds, Pageable pageable);
+    
+    /**
+     * Delete time blocks by ID in a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM TimeBlock tb WHERE tb.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+    
+    /**
+     * Find a page of time blocks whose term ended before the cutoff, with IDs above afterId, oldest IDs first
+     */
+    List<TimeBlock> findByExpiresAtBeforeAndIdGreaterThanOrderByIdAsc(LocalDateTime cutoff, Integer afterId, Pageable pageable);
+    
+    /**
+     * Re-read and row-lock the given time blocks that are still expired, for archiving
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT tb FROM TimeBlock tb WHERE tb.id IN :ids AND tb.expiresAt < :cutoff ORDER BY tb.id")
+    List<TimeBlock> lockExpiredByIdIn(@Param("ids") Collection<Integer> ids, @Param("cutoff") LocalDateTime cutoff);
+    
+    /**
+     * Delete the given time blocks only if they are still expired
+     */
+    @Modifying
+    @Query("DELETE FROM TimeBlock tb WHERE tb.id IN :ids AND tb.expiresAt < :cutoff")
+    int deleteExpiredByIdIn(@Param("ids") Collection<Integer> ids, @Param("cutoff") LocalDateTime cutoff);
+    
+    /**
+     * Find a page of time blocks created before expiresAt was tracked
+     */
+    List<TimeBlock> findByExpiresAtIsNullOrderByIdAsc(Pageable pageable);
+    
+    /**
+     * Set a block's term end without touching updatedAt
      */
-    void deleteByStudentId(Integer studentId);
+    @Modifying
+    @Query("UPDATE TimeBlock tb SET tb.expiresAt = :expiresAt WHERE tb.id = :id")
+    int updateExpiresAt(@Param("id") Integer id, @Param("expiresAt") LocalDateTime expiresAt);
 } 
\ No newline at end of file
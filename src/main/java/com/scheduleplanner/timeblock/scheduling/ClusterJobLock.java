@@ -0,0 +1,94 @@
+package com.scheduleplanner.timeblock.scheduling;
+
+import com.scheduleplanner.timeblock.shard.ShardRoutingDataSource;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Cluster-wide claims for scheduled jobs, so a job runs on one instance at a time.
+ * Each job has a row in scheduler_locks (on shard 0 when sharded). An instance claims it by moving
+ * locked_until forward, which only succeeds once the previous claim has run out. A claim lasts at
+ * most lockAtMostFor in case its holder dies, and is kept for at least lockAtLeastFor after a
+ * short run so instances whose timers fire moments later skip the job.
+ */
+@Component
+public class ClusterJobLock {
+
+    private final String instance = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        jdbcTemplate = new JdbcTemplate(routing != null ? routing.getShards().get(0) : dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS scheduler_locks ("
+                + "name VARCHAR(64) NOT NULL PRIMARY KEY, locked_until TIMESTAMP NOT NULL, "
+                + "locked_at TIMESTAMP NOT NULL, locked_by VARCHAR(255) NOT NULL)");
+    }
+
+    /**
+     * Run the job if no other instance holds its claim
+     *
+     * @return whether the job ran here
+     */
+    public boolean runExclusively(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable job) {
+        LocalDateTime now = LocalDateTime.now();
+        // Whole seconds, so release can match the stored value whatever the column's precision
+        LocalDateTime lockedAt = now.truncatedTo(ChronoUnit.SECONDS);
+        if (!tryClaim(name, now, lockedAt, lockedAt.plus(lockAtMostFor))) {
+            return false;
+        }
+        try {
+            job.run();
+        } finally {
+            release(name, lockedAt, lockedAt.plus(lockAtLeastFor));
+        }
+        return true;
+    }
+
+    // Private helper methods
+
+    private boolean tryClaim(String name, LocalDateTime now, LocalDateTime lockedAt, LocalDateTime lockedUntil) {
+        int claimed = jdbcTemplate.update("UPDATE scheduler_locks SET locked_until = ?, locked_at = ?, locked_by = ? "
+                        + "WHERE name = ? AND locked_until <= ?",
+                Timestamp.valueOf(lockedUntil), Timestamp.valueOf(lockedAt), instance, name, Timestamp.valueOf(now));
+        if (claimed > 0) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO scheduler_locks (name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)",
+                    name, Timestamp.valueOf(lockedUntil), Timestamp.valueOf(lockedAt), instance);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Held by another instance
+            return false;
+        }
+    }
+
+    /**
+     * Give the claim up early, but not before keepUntil; a claim taken over by another instance is left alone
+     */
+    private void release(String name, LocalDateTime lockedAt, LocalDateTime keepUntil) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        jdbcTemplate.update("UPDATE scheduler_locks SET locked_until = ? WHERE name = ? AND locked_by = ? AND locked_at = ?",
+                Timestamp.valueOf(keepUntil.isAfter(now) ? keepUntil : now), name, instance, Timestamp.valueOf(lockedAt));
+    }
+}
@@ -0,0 +1,228 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import com.scheduleplanner.timeblock.shard.ShardRouting;
+import com.scheduleplanner.timeblock.util.ICalendarWriter;
+import com.scheduleplanner.timeblock.util.ScheduleTimeUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a student's time blocks as an iCalendar feed and caches the rendered bytes.
+ * Calendar apps poll feeds every few minutes, so repeat polls are served from the cache
+ * (or answered by ETag alone) until a write for that student evicts the entry. Only writes on
+ * this instance evict it, so entries also expire after max-age to pick up writes made elsewhere.
+ */
+@Service
+public class CalendarFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalendarFeedService.class);
+
+    // Access-ordered, so the least recently served feed is dropped first; guarded by its own monitor
+    private final Map<Integer, CalendarFeed> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CalendarFeed> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Bumped on every eviction so a render that raced with a write is not cached
+    private long generation;
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    @Autowired
+    private ShardRouting shardRouting;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${timeblock.feed.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${timeblock.feed.cache.max-age:60s}")
+    private Duration maxAge;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * ETag of the cached feed for a student, or null when it is not cached; never touches the database
+     */
+    public String getCachedETag(Integer studentId) {
+        synchronized (cache) {
+            CalendarFeed feed = getFresh(studentId);
+            return feed == null ? null : feed.getETag();
+        }
+    }
+
+    /**
+     * Get the rendered feed for a student, rendering and caching it on a miss; a hit opens no transaction
+     */
+    public CalendarFeed getFeed(Integer studentId) {
+        long renderGeneration;
+        synchronized (cache) {
+            CalendarFeed cached = getFresh(studentId);
+            if (cached != null) {
+                return cached;
+            }
+            renderGeneration = generation;
+        }
+
+        logger.info("Rendering calendar feed for student: {}", studentId);
+        CalendarFeed feed = readOnlyTransactionTemplate.execute(status -> {
+            shardRouting.bindStudent(studentId);
+            return render(studentId, timeBlockRepository.findByStudentIdOrderByDayAscStartTimeAsc(studentId));
+        });
+
+        synchronized (cache) {
+            if (generation == renderGeneration) {
+                cache.put(studentId, feed);
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Drop a student's cached feed, again after the surrounding transaction commits if there is one
+     */
+    public void evict(Integer studentId) {
+        if (studentId == null) {
+            return;
+        }
+        doEvict(studentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(studentId);
+                }
+            });
+        }
+    }
+
+    // Private helper methods
+
+    /**
+     * The cached feed for a student unless it is older than max-age; call holding the cache monitor
+     */
+    private CalendarFeed getFresh(Integer studentId) {
+        CalendarFeed feed = cache.get(studentId);
+        if (feed != null && feed.getRenderedAt().isBefore(LocalDateTime.now().minus(maxAge))) {
+            cache.remove(studentId);
+            return null;
+        }
+        return feed;
+    }
+
+    private void doEvict(Integer studentId) {
+        synchronized (cache) {
+            generation++;
+            cache.remove(studentId);
+        }
+    }
+
+    private CalendarFeed render(Integer studentId, List<TimeBlock> timeBlocks) {
+        ICalendarWriter writer = new ICalendarWriter()
+                .begin("VCALENDAR")
+                .property("VERSION", "2.0")
+                .property("PRODID", "-//Schedule Planner//TimeBlock Service//EN")
+                .property("CALSCALE", "GREGORIAN")
+                .text("X-WR-CALNAME", "Schedule for student " + studentId);
+
+        for (TimeBlock timeBlock : timeBlocks) {
+            try {
+                writeEvent(writer, timeBlock);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping time block {} in feed: {}", timeBlock.getId(), e.getMessage());
+            }
+        }
+
+        byte[] content = writer.end("VCALENDAR").toBytes();
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(content) + "\"";
+        return new CalendarFeed(content, eTag, LocalDateTime.now());
+    }
+
+    /**
+     * One weekly VEVENT per block, anchored on the block's weekday in the week it was created
+     */
+    private void writeEvent(ICalendarWriter writer, TimeBlock timeBlock) {
+        DayOfWeek day = ScheduleTimeUtils.parseDay(timeBlock.getDay());
+        int start = ScheduleTimeUtils.parseMinutes(timeBlock.getStartTime());
+        int end = ScheduleTimeUtils.parseMinutes(timeBlock.getEndTime());
+        if (end <= start) {
+            throw new IllegalArgumentException("End time is not after start time");
+        }
+
+        LocalDateTime created = timeBlock.getCreatedAt() != null ? timeBlock.getCreatedAt() : LocalDateTime.now();
+        LocalDate firstDate = created.toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .with(TemporalAdjusters.nextOrSame(day));
+        LocalDateTime stamp = timeBlock.getUpdatedAt() != null ? timeBlock.getUpdatedAt() : created;
+        int weeks = timeBlock.getWeeks() != null && timeBlock.getWeeks() > 0 ? timeBlock.getWeeks() : 1;
+
+        writer.begin("VEVENT")
+                .property("UID", "timeblock-" + timeBlock.getId() + "@scheduleplanner")
+                .utcDateTime("DTSTAMP", stamp)
+                .localDateTime("DTSTART", firstDate.atStartOfDay().plusMinutes(start))
+                .localDateTime("DTEND", firstDate.atStartOfDay().plusMinutes(end))
+                .property("RRULE", "FREQ=WEEKLY;COUNT=" + weeks)
+                .text("SUMMARY", timeBlock.getTitle())
+                .text("DESCRIPTION", timeBlock.getDescription())
+                .text("CATEGORIES", timeBlock.getType())
+                .end("VEVENT");
+    }
+
+    /**
+     * Rendered feed bytes with their strong ETag
+     */
+    public static class CalendarFeed {
+
+        private final byte[] content;
+        private final String eTag;
+        private final LocalDateTime renderedAt;
+
+        public CalendarFeed(byte[] content, String eTag, LocalDateTime renderedAt) {
+            this.content = content;
+            this.eTag = eTag;
+            this.renderedAt = renderedAt;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public LocalDateTime getRenderedAt() {
+            return renderedAt;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.PlacementRequestDTO;
+import com.scheduleplanner.timeblock.dto.PlacementSuggestionDTO;
+import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import com.scheduleplanner.timeblock.shard.ShardRouting;
+import com.scheduleplanner.timeblock.util.ScheduleTimeUtils;
+import com.scheduleplanner.timeblock.util.WeeklyOccupancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Suggests conflict-free placements for a new time block.
+ * The student's blocks are loaded once into a {@link WeeklyOccupancy} bitmap and every candidate
+ * start on the allowed days is checked against it, keeping the best k by distance from the
+ * preferred window, then by the order the days were given in, then by start time.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PlacementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlacementService.class);
+
+    private static final Set<DayOfWeek> WEEKDAYS = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    @Autowired
+    private ShardRouting shardRouting;
+
+    @Value("${timeblock.suggest.step-minutes:15}")
+    private int stepMinutes;
+
+    @Value("${timeblock.suggest.default-limit:5}")
+    private int defaultLimit;
+
+    @Value("${timeblock.suggest.max-limit:20}")
+    private int maxLimit;
+
+    @Value("${timeblock.suggest.earliest-start:7:00 AM}")
+    private String defaultEarliestStart;
+
+    @Value("${timeblock.suggest.latest-end:10:00 PM}")
+    private String defaultLatestEnd;
+
+    /**
+     * Find the top-ranked conflict-free placements for a block of the requested duration
+     *
+     * @throws IllegalArgumentException if the request's days, times or limit are invalid
+     */
+    public List<PlacementSuggestionDTO> suggestPlacements(Integer studentId, PlacementRequestDTO request) {
+        logger.info("Suggesting {} minute placements for student: {}", request.getDurationMinutes(), studentId);
+        shardRouting.bindStudent(studentId);
+
+        List<DayOfWeek> days = resolveDays(request.getDays());
+        int earliest = parseOrDefault(request.getEarliestStart(), defaultEarliestStart);
+        int latest = parseOrDefault(request.getLatestEnd(), defaultLatestEnd);
+        int duration = request.getDurationMinutes();
+        if (earliest + duration > latest) {
+            throw new IllegalArgumentException("A " + duration + " minute block does not fit between "
+                    + ScheduleTimeUtils.formatMinutes(earliest) + " and " + ScheduleTimeUtils.formatMinutes(latest));
+        }
+        int preferredStart = request.getPreferredStart() != null ? ScheduleTimeUtils.parseMinutes(request.getPreferredStart()) : earliest;
+        int preferredEnd = request.getPreferredEnd() != null ? ScheduleTimeUtils.parseMinutes(request.getPreferredEnd()) : latest;
+        if (preferredEnd <= preferredStart) {
+            throw new IllegalArgumentException("Preferred end must be after preferred start");
+        }
+        int limit = request.getLimit() != null ? request.getLimit() : defaultLimit;
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+
+        WeeklyOccupancy occupancy = loadOccupancy(studentId);
+        int step = Math.max(1, stepMinutes / WeeklyOccupancy.SLOT_MINUTES) * WeeklyOccupancy.SLOT_MINUTES;
+        int firstStart = (earliest + step - 1) / step * step;
+
+        // Worst candidate on top so it can be dropped once k better ones are known
+        Comparator<Candidate> ranking = Comparator.comparingInt(Candidate::distance)
+                .thenComparingInt(Candidate::dayRank)
+                .thenComparingInt(Candidate::start);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (int dayRank = 0; dayRank < days.size(); dayRank++) {
+            DayOfWeek day = days.get(dayRank);
+            for (int start = firstStart; start + duration <= latest; start += step) {
+                int end = start + duration;
+                int endSlot = (end + WeeklyOccupancy.SLOT_MINUTES - 1) / WeeklyOccupancy.SLOT_MINUTES;
+                if (!occupancy.isFree(day, start / WeeklyOccupancy.SLOT_MINUTES, endSlot)) {
+                    continue;
+                }
+                int distance = Math.max(0, preferredStart - start) + Math.max(0, end - preferredEnd);
+                best.offer(new Candidate(day, dayRank, start, end, distance));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        List<PlacementSuggestionDTO> suggestions = new ArrayList<>(ranked.size());
+        for (Candidate candidate : ranked) {
+            suggestions.add(new PlacementSuggestionDTO(
+                suggestions.size() + 1,
+                ScheduleTimeUtils.formatDay(candidate.day()),
+                ScheduleTimeUtils.formatMinutes(candidate.start()),
+                ScheduleTimeUtils.formatMinutes(candidate.end()),
+                request.getType(),
+                candidate.distance()
+            ));
+        }
+        logger.info("Found {} placements for student: {}", suggestions.size(), studentId);
+        return suggestions;
+    }
+
+    // Private helper methods
+
+    private List<DayOfWeek> resolveDays(List<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return new ArrayList<>(WEEKDAYS);
+        }
+        LinkedHashSet<DayOfWeek> days = new LinkedHashSet<>();
+        for (String day : requested) {
+            days.add(ScheduleTimeUtils.parseDay(day));
+        }
+        return new ArrayList<>(days);
+    }
+
+    private int parseOrDefault(String time, String defaultTime) {
+        return ScheduleTimeUtils.parseMinutes(time != null && !time.isBlank() ? time : defaultTime);
+    }
+
+    private WeeklyOccupancy loadOccupancy(Integer studentId) {
+        WeeklyOccupancy occupancy = new WeeklyOccupancy();
+        for (TimeBlock existing : timeBlockRepository.findByStudentIdOrderByDayAscStartTimeAsc(studentId)) {
+            try {
+                occupancy.occupy(ScheduleTimeUtils.parseDay(existing.getDay()),
+                        ScheduleTimeUtils.parseMinutes(existing.getStartTime()),
+                        ScheduleTimeUtils.parseMinutes(existing.getEndTime()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping time block {} with unparseable schedule: {}", existing.getId(), e.getMessage());
+            }
+        }
+        return occupancy;
+    }
+
+    private record Candidate(DayOfWeek day, int dayRank, int start, int end, int distance) {}
+}
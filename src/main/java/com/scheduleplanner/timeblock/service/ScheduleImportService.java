@@ -0,0 +1,361 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.ImportReportDTO;
+import com.scheduleplanner.timeblock.dto.ImportResultDTO;
+import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import com.scheduleplanner.timeblock.shard.ShardRouting;
+import com.scheduleplanner.timeblock.util.ICalendarParser;
+import com.scheduleplanner.timeblock.util.ScheduleTimeUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports iCalendar files as time blocks in two steps.
+ * {@link #parse} reads and maps the upload without touching the database, so the caller can run it
+ * on the request thread and a slow client never holds a bulkhead thread, transaction or pool
+ * connection; {@link #store} then validates and inserts the blocks in one short transaction.
+ */
+@Service
+public class ScheduleImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleImportService.class);
+
+    private static final int DEFAULT_WEEKS = 15;
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    @Autowired
+    private TimeBlockService timeBlockService;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private ShardRouting shardRouting;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${timeblock.import.batch-size:50}")
+    private int batchSize;
+
+    @Value("${timeblock.import.max-events:2000}")
+    private int maxEvents;
+
+    // Applies to raw text/calendar bodies too, which the multipart limits do not cover
+    @Value("${timeblock.import.max-bytes:2MB}")
+    private DataSize maxBytes;
+
+    @Value("${timeblock.import.default-type:class}")
+    private String defaultType;
+
+    // Zone the stored wall-clock times are in; blank means the server's zone
+    @Value("${timeblock.schedule.zone:}")
+    private String scheduleZone;
+
+    private ZoneId zone;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        zone = scheduleZone == null || scheduleZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(scheduleZone);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Import an iCalendar stream for a student, parsing and storing on the calling thread
+     */
+    public ImportReportDTO importCalendar(Integer studentId, InputStream inputStream) throws IOException {
+        return store(parse(studentId, inputStream));
+    }
+
+    /**
+     * Read an iCalendar stream and map its events to time blocks, without any database work
+     *
+     * @throws IllegalArgumentException if the calendar is malformed or too large
+     */
+    public ParsedCalendar parse(Integer studentId, InputStream inputStream) throws IOException {
+        logger.info("Parsing calendar for student: {}", studentId);
+
+        // At most max-events entries, so the parsed upload stays bounded in memory
+        List<ParsedEvent> events = new ArrayList<>();
+        new ICalendarParser(maxEvents, maxBytes.toBytes(), zone).parse(inputStream, event -> {
+            try {
+                events.add(new ParsedEvent(event.getUid(), event.getSummary(), mapEvent(studentId, event), null));
+            } catch (IllegalArgumentException e) {
+                events.add(new ParsedEvent(event.getUid(), event.getSummary(), null, e.getMessage()));
+            }
+        });
+        return new ParsedCalendar(studentId, events);
+    }
+
+    /**
+     * Save a parsed calendar.
+     * Events are validated against the student's existing blocks and against each other in memory,
+     * accepted blocks are saved in batches within one transaction, and every event gets a report entry.
+     */
+    public ImportReportDTO store(ParsedCalendar calendar) {
+        return transactionTemplate.execute(status -> storeEvents(calendar.studentId, calendar.events));
+    }
+
+    /**
+     * An upload mapped to time blocks, ready to {@link #store}
+     */
+    public static final class ParsedCalendar {
+
+        private final Integer studentId;
+        private final List<ParsedEvent> events;
+
+        private ParsedCalendar(Integer studentId, List<ParsedEvent> events) {
+            this.studentId = studentId;
+            this.events = events;
+        }
+
+        public Integer getStudentId() {
+            return studentId;
+        }
+    }
+
+    // Private helper methods
+
+    private ImportReportDTO storeEvents(Integer studentId, List<ParsedEvent> events) {
+        shardRouting.bindStudentForWrite(studentId);
+
+        Map<DayOfWeek, List<Occupied>> occupancy = loadOccupancy(studentId);
+        ImportReportDTO report = new ImportReportDTO(studentId);
+        List<Pending> batch = new ArrayList<>(batchSize);
+
+        for (ParsedEvent event : events) {
+            if (event.error() != null) {
+                report.addResult(ImportResultDTO.rejected(event.uid(), event.summary(), event.error()));
+                continue;
+            }
+            String conflicts = findConflicts(occupancy, event.blocks());
+            if (conflicts != null) {
+                report.addResult(ImportResultDTO.rejected(event.uid(), event.summary(), "Time conflict detected with: " + conflicts));
+                continue;
+            }
+            ImportResultDTO result = ImportResultDTO.accepted(event.uid(), event.summary());
+            report.addResult(result);
+            for (TimeBlock block : event.blocks()) {
+                occupy(occupancy, block);
+                batch.add(new Pending(block, result));
+            }
+            if (batch.size() >= batchSize) {
+                flushBatch(batch);
+            }
+        }
+        flushBatch(batch);
+        if (report.getAccepted() > 0) {
+            calendarFeedService.evict(studentId);
+        }
+
+        logger.info("Imported calendar for student: {} ({} accepted, {} rejected)",
+                studentId, report.getAccepted(), report.getRejected());
+        return report;
+    }
+
+    private void flushBatch(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        timeBlockRepository.saveAll(batch.stream().map(Pending::block).toList());
+        entityManager.flush();
+        entityManager.clear();
+        for (Pending pending : batch) {
+            pending.result().getTimeBlocks().add(timeBlockService.convertToDTO(pending.block()));
+        }
+        logger.debug("Saved import batch of {} time blocks", batch.size());
+        batch.clear();
+    }
+
+    private List<TimeBlock> mapEvent(Integer studentId, ICalendarParser.Event event) {
+        if (event.getSummary() == null || event.getSummary().isBlank()) {
+            throw new IllegalArgumentException("Event has no SUMMARY");
+        }
+        if (event.isAllDay("DTSTART")) {
+            throw new IllegalArgumentException("All-day events are not supported");
+        }
+        LocalDateTime start = event.getDateTime("DTSTART");
+        if (start == null) {
+            throw new IllegalArgumentException("Event has no DTSTART");
+        }
+        LocalDateTime end = resolveEnd(event, start);
+        if (!end.toLocalDate().equals(start.toLocalDate()) || !end.isAfter(start)) {
+            throw new IllegalArgumentException("Events must start and end on the same day");
+        }
+
+        Set<DayOfWeek> days = new LinkedHashSet<>();
+        int weeks = resolveRecurrence(event, start, days);
+
+        String type = event.getFirstCategory() != null ? event.getFirstCategory() : defaultType;
+        String description = event.getDescription();
+        if (event.getLocation() != null) {
+            description = description == null ? event.getLocation() : event.getLocation() + "\n" + description;
+        }
+
+        List<TimeBlock> blocks = new ArrayList<>(days.size());
+        for (DayOfWeek day : days) {
+            blocks.add(new TimeBlock(
+                truncate(event.getSummary(), 255),
+                ScheduleTimeUtils.formatDay(day),
+                ScheduleTimeUtils.formatMinutes(start.getHour() * 60 + start.getMinute()),
+                ScheduleTimeUtils.formatMinutes(end.getHour() * 60 + end.getMinute()),
+                truncate(type, 50),
+                truncate(description, 500),
+                null,
+                studentId,
+                weeks
+            ));
+        }
+        return blocks;
+    }
+
+    private LocalDateTime resolveEnd(ICalendarParser.Event event, LocalDateTime start) {
+        LocalDateTime end = event.getDateTime("DTEND");
+        if (end != null) {
+            return end;
+        }
+        String duration = event.getRawValue("DURATION");
+        if (duration == null) {
+            throw new IllegalArgumentException("Event has neither DTEND nor DURATION");
+        }
+        try {
+            return start.plus(Duration.parse(duration.trim()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid DURATION: " + duration);
+        }
+    }
+
+    /**
+     * Map an RRULE onto the weekly model: fills in the days the event repeats on and returns the week span
+     */
+    private int resolveRecurrence(ICalendarParser.Event event, LocalDateTime start, Set<DayOfWeek> days) {
+        Map<String, String> rule = event.getRecurrenceRule();
+        if (rule == null) {
+            days.add(start.getDayOfWeek());
+            return 1;
+        }
+        if (!"WEEKLY".equals(rule.get("FREQ"))) {
+            throw new IllegalArgumentException("Only weekly recurrence is supported");
+        }
+        if (rule.containsKey("INTERVAL") && !"1".equals(rule.get("INTERVAL"))) {
+            throw new IllegalArgumentException("Recurrence intervals other than every week are not supported");
+        }
+        if (rule.containsKey("BYDAY")) {
+            // BYDAY is in DTSTART's own zone, so move each day with it when the conversion crossed midnight
+            int shift = event.getDayShift("DTSTART");
+            for (String byDay : rule.get("BYDAY").split(",")) {
+                days.add(parseWeekday(byDay.trim()).plus(shift));
+            }
+        } else {
+            days.add(start.getDayOfWeek());
+        }
+
+        try {
+            if (rule.containsKey("COUNT")) {
+                int count = Integer.parseInt(rule.get("COUNT"));
+                if (count < 1) {
+                    throw new IllegalArgumentException("Invalid COUNT: " + count);
+                }
+                return (count + days.size() - 1) / days.size();
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid COUNT: " + rule.get("COUNT"));
+        }
+        if (rule.containsKey("UNTIL")) {
+            LocalDateTime until = event.getRecurrenceUntil();
+            long daysBetween = ChronoUnit.DAYS.between(start.toLocalDate(), until.toLocalDate());
+            if (daysBetween < 0) {
+                throw new IllegalArgumentException("UNTIL is before DTSTART");
+            }
+            return (int) (daysBetween / 7) + 1;
+        }
+        return DEFAULT_WEEKS;
+    }
+
+    private DayOfWeek parseWeekday(String byDay) {
+        switch (byDay) {
+            case "MO": return DayOfWeek.MONDAY;
+            case "TU": return DayOfWeek.TUESDAY;
+            case "WE": return DayOfWeek.WEDNESDAY;
+            case "TH": return DayOfWeek.THURSDAY;
+            case "FR": return DayOfWeek.FRIDAY;
+            case "SA": return DayOfWeek.SATURDAY;
+            case "SU": return DayOfWeek.SUNDAY;
+            default: throw new IllegalArgumentException("Unsupported BYDAY value: " + byDay);
+        }
+    }
+
+    private Map<DayOfWeek, List<Occupied>> loadOccupancy(Integer studentId) {
+        Map<DayOfWeek, List<Occupied>> occupancy = new EnumMap<>(DayOfWeek.class);
+        for (TimeBlock existing : timeBlockRepository.findByStudentIdOrderByDayAscStartTimeAsc(studentId)) {
+            try {
+                occupy(occupancy, existing);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping time block {} with unparseable schedule: {}", existing.getId(), e.getMessage());
+            }
+        }
+        return occupancy;
+    }
+
+    private void occupy(Map<DayOfWeek, List<Occupied>> occupancy, TimeBlock block) {
+        occupancy.computeIfAbsent(ScheduleTimeUtils.parseDay(block.getDay()), day -> new ArrayList<>())
+                .add(new Occupied(ScheduleTimeUtils.parseMinutes(block.getStartTime()),
+                        ScheduleTimeUtils.parseMinutes(block.getEndTime()), block.getTitle()));
+    }
+
+    private String findConflicts(Map<DayOfWeek, List<Occupied>> occupancy, List<TimeBlock> blocks) {
+        Set<String> titles = new LinkedHashSet<>();
+        for (TimeBlock block : blocks) {
+            int start = ScheduleTimeUtils.parseMinutes(block.getStartTime());
+            int end = ScheduleTimeUtils.parseMinutes(block.getEndTime());
+            for (Occupied occupied : occupancy.getOrDefault(ScheduleTimeUtils.parseDay(block.getDay()), List.of())) {
+                if (ScheduleTimeUtils.overlaps(start, end, occupied.start(), occupied.end())) {
+                    titles.add(occupied.title());
+                }
+            }
+        }
+        return titles.isEmpty() ? null : String.join(", ", titles);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private record Occupied(int start, int end, String title) {}
+
+    private record ParsedEvent(String uid, String summary, List<TimeBlock> blocks, String error) {}
+
+    private record Pending(TimeBlock block, ImportResultDTO result) {}
+}
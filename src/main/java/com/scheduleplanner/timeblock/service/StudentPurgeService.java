@@ -0,0 +1,284 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.PurgeJobDTO;
+import com.scheduleplanner.timeblock.repository.ArchivedTimeBlockRepository;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import com.scheduleplanner.timeblock.shard.ShardContext;
+import com.scheduleplanner.timeblock.shard.ShardRouting;
+import com.scheduleplanner.timeblock.shard.ShardRoutingDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background purge of all time blocks for many students (e.g. offboarding a cohort).
+ * Students are processed in chunks, and each chunk's rows (live and archived) are deleted by ID in
+ * bounded set-based batches, each in its own short transaction, so no single statement or lock runs long.
+ * Job state lives in the purge_jobs table (on shard 0 when sharded), so any instance can report
+ * progress and it survives restarts. A job whose instance stopped stops advancing and is reported
+ * as failed once it has not been touched for abandoned-after.
+ */
+@Service
+public class StudentPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentPurgeService.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private final String instance = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    @Autowired
+    private ArchivedTimeBlockRepository archivedTimeBlockRepository;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouting shardRouting;
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${timeblock.purge.student-chunk-size:100}")
+    private int studentChunkSize;
+
+    @Value("${timeblock.purge.row-batch-size:500}")
+    private int rowBatchSize;
+
+    @Value("${timeblock.purge.max-students-per-job:10000}")
+    private int maxStudentsPerJob;
+
+    @Value("${timeblock.purge.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Value("${timeblock.purge.retained-jobs:100}")
+    private int retainedJobs;
+
+    @Value("${timeblock.purge.abandoned-after:10m}")
+    private Duration abandonedAfter;
+
+    private ThreadPoolExecutor executor;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate jobStore;
+
+    @PostConstruct
+    void start() {
+        // One worker: purges are background work and should take a single pool connection at most
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "student-purge");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        jobStore = new JdbcTemplate(routing != null ? routing.getShards().get(0) : dataSource);
+        jobStore.execute("CREATE TABLE IF NOT EXISTS purge_jobs ("
+                + "job_id VARCHAR(36) NOT NULL PRIMARY KEY, status VARCHAR(16) NOT NULL, "
+                + "total_students INT NOT NULL, processed_students INT NOT NULL, deleted_time_blocks BIGINT NOT NULL, "
+                + "submitted_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL, finished_at TIMESTAMP NULL, "
+                + "error VARCHAR(500) NULL, instance VARCHAR(255) NOT NULL)");
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a purge of every time block belonging to the given students
+     *
+     * @throws IllegalArgumentException if no or too many students are given
+     * @throws RejectedExecutionException if the purge queue is full
+     */
+    public PurgeJobDTO submitPurge(List<Integer> studentIds) {
+        LinkedHashSet<Integer> distinct = new LinkedHashSet<>(studentIds);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one student ID is required");
+        }
+        if (distinct.size() > maxStudentsPerJob) {
+            throw new IllegalArgumentException("A purge job may cover at most " + maxStudentsPerJob + " students");
+        }
+
+        PurgeJob job = new PurgeJob(UUID.randomUUID().toString(), new ArrayList<>(distinct));
+        pruneFinishedJobs();
+        Timestamp now = Timestamp.valueOf(job.submittedAt);
+        jobStore.update("INSERT INTO purge_jobs (job_id, status, total_students, processed_students, deleted_time_blocks, "
+                        + "submitted_at, updated_at, instance) VALUES (?, ?, ?, 0, 0, ?, ?, ?)",
+                job.id, QUEUED, job.studentIds.size(), now, now, instance);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobStore.update("DELETE FROM purge_jobs WHERE job_id = ?", job.id);
+            throw e;
+        }
+        logger.info("Queued purge job {} for {} students", job.id, job.studentIds.size());
+        return getJob(job.id).orElseThrow();
+    }
+
+    /**
+     * Get the progress of a purge job, whichever instance runs it
+     */
+    public Optional<PurgeJobDTO> getJob(String jobId) {
+        // A job nobody has touched for abandoned-after lost its instance
+        LocalDateTime now = LocalDateTime.now();
+        jobStore.update("UPDATE purge_jobs SET status = ?, finished_at = ?, updated_at = ?, error = ? "
+                        + "WHERE job_id = ? AND finished_at IS NULL AND updated_at < ?",
+                FAILED, Timestamp.valueOf(now), Timestamp.valueOf(now), "Abandoned: the instance running the job stopped",
+                jobId, Timestamp.valueOf(now.minus(abandonedAfter)));
+        return jobStore.query("SELECT * FROM purge_jobs WHERE job_id = ?", (rs, rowNum) -> new PurgeJobDTO(
+                rs.getString("job_id"), rs.getString("status"), rs.getInt("total_students"),
+                rs.getInt("processed_students"), rs.getLong("deleted_time_blocks"),
+                rs.getTimestamp("submitted_at").toLocalDateTime(), toLocalDateTime(rs.getTimestamp("finished_at")),
+                rs.getString("error")), jobId).stream().findFirst();
+    }
+
+    // Private helper methods
+
+    private void run(PurgeJob job) {
+        updateJob(job, RUNNING, null, null);
+        logger.info("Starting purge job {}", job.id);
+        try {
+            List<Integer> studentIds = job.studentIds;
+            for (int from = 0; from < studentIds.size(); from += studentChunkSize) {
+                List<Integer> chunk = studentIds.subList(from, Math.min(from + studentChunkSize, studentIds.size()));
+                for (Map.Entry<Integer, List<Integer>> shard : shardRouting.groupByShard(chunk).entrySet()) {
+                    job.deletedTimeBlocks.addAndGet(purgeChunk(shard.getKey(), shard.getValue()));
+                }
+                chunk.forEach(calendarFeedService::evict);
+                job.processedStudents.addAndGet(chunk.size());
+                updateJob(job, RUNNING, null, null);
+                logger.debug("Purge job {}: {}/{} students, {} time blocks deleted", job.id,
+                        job.processedStudents.get(), studentIds.size(), job.deletedTimeBlocks.get());
+            }
+            updateJob(job, COMPLETED, LocalDateTime.now(), null);
+            logger.info("Completed purge job {}: {} time blocks deleted", job.id, job.deletedTimeBlocks.get());
+        } catch (Exception e) {
+            logger.error("Purge job {} failed: {}", job.id, e.getMessage());
+            try {
+                updateJob(job, FAILED, LocalDateTime.now(), e.getMessage());
+            } catch (RuntimeException updateFailure) {
+                logger.error("Could not record the failure of purge job {}: {}", job.id, updateFailure.getMessage());
+            }
+        }
+    }
+
+    private long purgeChunk(int shard, List<Integer> studentIds) {
+        long deleted = 0;
+        while (true) {
+            Integer batchDeleted = ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> {
+                shardRouting.lockAllForTransaction(studentIds);
+                List<Integer> ids = timeBlockRepository.findIdsByStudentIdIn(studentIds, PageRequest.of(0, rowBatchSize));
+                return ids.isEmpty() ? 0 : timeBlockRepository.deleteByIdIn(ids);
+            }));
+            if (batchDeleted == null || batchDeleted == 0) {
+                break;
+            }
+            deleted += batchDeleted;
+        }
+        // Archived rows are never written by the API, so they need no student lock
+        while (true) {
+            Integer batchDeleted = ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> {
+                List<Integer> ids = archivedTimeBlockRepository.findIdsByStudentIdIn(studentIds, PageRequest.of(0, rowBatchSize));
+                return ids.isEmpty() ? 0 : archivedTimeBlockRepository.deleteByIdIn(ids);
+            }));
+            if (batchDeleted == null || batchDeleted == 0) {
+                return deleted;
+            }
+            deleted += batchDeleted;
+        }
+    }
+
+    /**
+     * Record a job's progress; also touches this instance's queued jobs so they are not taken for abandoned
+     */
+    private void updateJob(PurgeJob job, String status, LocalDateTime finishedAt, String error) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jobStore.update("UPDATE purge_jobs SET status = ?, processed_students = ?, deleted_time_blocks = ?, "
+                        + "updated_at = ?, finished_at = ?, error = ? WHERE job_id = ?",
+                status, job.processedStudents.get(), job.deletedTimeBlocks.get(), now,
+                finishedAt == null ? null : Timestamp.valueOf(finishedAt), truncate(error, 500), job.id);
+        jobStore.update("UPDATE purge_jobs SET updated_at = ? WHERE instance = ? AND status = ?", now, instance, QUEUED);
+    }
+
+    /**
+     * Keep at most retained-jobs finished jobs
+     */
+    private void pruneFinishedJobs() {
+        List<String> finished = jobStore.queryForList(
+                "SELECT job_id FROM purge_jobs WHERE finished_at IS NOT NULL ORDER BY finished_at DESC", String.class);
+        if (finished.size() >= retainedJobs) {
+            for (String jobId : finished.subList(Math.max(0, retainedJobs - 1), finished.size())) {
+                jobStore.update("DELETE FROM purge_jobs WHERE job_id = ?", jobId);
+            }
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    /**
+     * What the worker needs while it runs a job; the durable state is in purge_jobs
+     */
+    private static class PurgeJob {
+
+        private final String id;
+        private final List<Integer> studentIds;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicInteger processedStudents = new AtomicInteger();
+        private final AtomicLong deletedTimeBlocks = new AtomicLong();
+
+        PurgeJob(String id, List<Integer> studentIds) {
+            this.id = id;
+            this.studentIds = studentIds;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
+import com.scheduleplanner.timeblock.model.ArchivedTimeBlock;
+import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.ArchivedTimeBlockRepository;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import com.scheduleplanner.timeblock.scheduling.ClusterJobLock;
+import com.scheduleplanner.timeblock.shard.ShardContext;
+import com.scheduleplanner.timeblock.shard.ShardRouting;
+import com.scheduleplanner.timeblock.util.ScheduleTimeUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Term-aware retention for time blocks.
+ * A scheduled job moves blocks whose term (createdAt + weeks) ended more than the grace period ago
+ * from time_blocks to archived_time_blocks, in small batches that each run in their own short
+ * transaction on each shard, so the hot table and its per-student queries only hold current terms.
+ * Archived blocks are only read when a caller opts in.
+ */
+@Service
+public class TimeBlockArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeBlockArchiveService.class);
+
+    static final String JOB_NAME = "timeblock-archive";
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    @Autowired
+    private ArchivedTimeBlockRepository archivedTimeBlockRepository;
+
+    @Autowired
+    private TimeBlockService timeBlockService;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private ShardRouting shardRouting;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterJobLock clusterJobLock;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${timeblock.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${timeblock.archive.grace-period:14d}")
+    private Duration gracePeriod;
+
+    @Value("${timeblock.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${timeblock.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${timeblock.archive.compress:true}")
+    private boolean compress;
+
+    @Value("${timeblock.archive.lock-at-most-for:PT50M}")
+    private Duration lockAtMostFor;
+
+    @Value("${timeblock.archive.lock-at-least-for:PT5M}")
+    private Duration lockAtLeastFor;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Get a student's current and archived time blocks together
+     */
+    @Transactional(readOnly = true)
+    public List<TimeBlockDTO> getTimeBlocksIncludingArchived(Integer studentId) {
+        List<TimeBlockDTO> timeBlocks = new ArrayList<>(timeBlockService.getTimeBlocksByStudentId(studentId));
+        logger.info("Fetching archived time blocks for student: {}", studentId);
+        for (ArchivedTimeBlock archived : archivedTimeBlockRepository.findByStudentIdOrderByIdAsc(studentId)) {
+            timeBlocks.add(decode(archived));
+        }
+        timeBlocks.sort(Comparator.comparing((TimeBlockDTO timeBlock) -> ScheduleTimeUtils.parseDay(timeBlock.getDay()))
+                .thenComparingInt(timeBlock -> ScheduleTimeUtils.parseMinutes(timeBlock.getStartTime())));
+        return timeBlocks;
+    }
+
+    /**
+     * Runs on whichever instance claims the archive job first; the others skip the run
+     */
+    @Scheduled(initialDelayString = "${timeblock.archive.initial-delay:PT5M}",
+            fixedDelayString = "${timeblock.archive.interval:PT1H}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!clusterJobLock.runExclusively(JOB_NAME, lockAtMostFor, lockAtLeastFor, this::archiveExpired)) {
+                logger.debug("Time block archive run skipped; another instance holds the claim");
+            }
+        } catch (RuntimeException e) {
+            logger.error("Time block archive run failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Move expired time blocks to the archive on every shard, up to the per-run batch limit per shard.
+     * A shard that fails is logged and skipped so the others are still archived.
+     *
+     * @return the number of time blocks archived
+     */
+    public int archiveExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        int archived = 0;
+        for (int shard = 0; shard < shardRouting.getShardCount(); shard++) {
+            try {
+                int shardArchived = ShardContext.callOn(shard, () -> archiveShard(cutoff));
+                if (shardArchived > 0) {
+                    logger.info("Archived {} time blocks on shard {} that expired before {}", shardArchived, shard, cutoff);
+                }
+                archived += shardArchived;
+            } catch (RuntimeException e) {
+                logger.error("Time block archive run failed on shard {}: {}", shard, e.getMessage());
+            }
+        }
+        return archived;
+    }
+
+    // Private helper methods
+
+    private int archiveShard(LocalDateTime cutoff) {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer backfilled = transactionTemplate.execute(status -> backfillBatch());
+            if (backfilled == null || backfilled < batchSize) {
+                break;
+            }
+        }
+
+        // Walk the expired rows by ID, so a page with nothing to move (fenced students, rows changed
+        // meanwhile) is stepped over instead of ending the run
+        int archived = 0;
+        int afterId = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int from = afterId;
+            BatchResult result = transactionTemplate.execute(status -> archiveBatch(cutoff, from, status));
+            if (result == null || result.lastId() == null) {
+                break;
+            }
+            archived += result.archived();
+            afterId = result.lastId();
+        }
+        return archived;
+    }
+
+    /**
+     * Fill in expiresAt on blocks written before it existed, so they can expire too
+     */
+    private int backfillBatch() {
+        List<TimeBlock> legacy = timeBlockRepository.findByExpiresAtIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+        for (TimeBlock timeBlock : legacy) {
+            timeBlockRepository.updateExpiresAt(timeBlock.getId(),
+                    TimeBlock.computeExpiresAt(timeBlock.getCreatedAt(), timeBlock.getWeeks()));
+        }
+        if (!legacy.isEmpty()) {
+            logger.debug("Backfilled expiresAt on {} time blocks", legacy.size());
+        }
+        return legacy.size();
+    }
+
+    /**
+     * Archive the next page of expired blocks after afterId; lastId is null once there are none left
+     */
+    private BatchResult archiveBatch(LocalDateTime cutoff, int afterId, TransactionStatus status) {
+        List<TimeBlock> candidates = timeBlockRepository.findByExpiresAtBeforeAndIdGreaterThanOrderByIdAsc(
+                cutoff, afterId, PageRequest.of(0, batchSize));
+        if (candidates.isEmpty()) {
+            return new BatchResult(0, null);
+        }
+        Integer lastId = candidates.get(candidates.size() - 1).getId();
+        // Ascending lock order; students fenced off this shard are being moved and are left for a later run
+        Set<Integer> studentIds = candidates.stream().map(TimeBlock::getStudentId).collect(Collectors.toCollection(TreeSet::new));
+        studentIds.removeIf(studentId -> !shardRouting.tryLockForTransaction(studentId));
+        List<Integer> candidateIds = candidates.stream()
+                .filter(timeBlock -> studentIds.contains(timeBlock.getStudentId()))
+                .map(TimeBlock::getId)
+                .toList();
+        if (candidateIds.isEmpty()) {
+            return new BatchResult(0, lastId);
+        }
+
+        // Re-read under row locks, so blocks updated, deleted or archived by another run since the
+        // unlocked read above are archived as they now are, or not at all
+        entityManager.clear();
+        List<TimeBlock> expired = timeBlockRepository.lockExpiredByIdIn(candidateIds, cutoff);
+        if (expired.isEmpty()) {
+            return new BatchResult(0, lastId);
+        }
+
+        LocalDateTime archivedAt = LocalDateTime.now();
+        List<Integer> ids = new ArrayList<>(expired.size());
+        for (TimeBlock timeBlock : expired) {
+            entityManager.persist(new ArchivedTimeBlock(timeBlock.getId(), timeBlock.getStudentId(),
+                    timeBlock.getExpiresAt(), archivedAt, compress, encode(timeBlockService.convertToDTO(timeBlock))));
+            ids.add(timeBlock.getId());
+        }
+        entityManager.flush();
+
+        int deleted = timeBlockRepository.deleteExpiredByIdIn(ids, cutoff);
+        if (deleted != ids.size()) {
+            // The rows are locked, so this only happens if something bypassed the locks; retry next run
+            logger.warn("Archive batch expected to move {} time blocks but deleted {}; rolling back", ids.size(), deleted);
+            status.setRollbackOnly();
+            return new BatchResult(0, lastId);
+        }
+        expired.stream().map(TimeBlock::getStudentId).distinct().forEach(calendarFeedService::evict);
+        logger.debug("Archived batch of {} time blocks", deleted);
+        return new BatchResult(deleted, lastId);
+    }
+
+    private byte[] encode(TimeBlockDTO timeBlock) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(timeBlock);
+            if (!compress) {
+                return json;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(json);
+            }
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode archived time block " + timeBlock.getId(), e);
+        }
+    }
+
+    private TimeBlockDTO decode(ArchivedTimeBlock archived) {
+        try {
+            byte[] json = archived.getPayload();
+            if (archived.isCompressed()) {
+                try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(json))) {
+                    json = gzip.readAllBytes();
+                }
+            }
+            TimeBlockDTO timeBlock = objectMapper.readValue(json, TimeBlockDTO.class);
+            timeBlock.setArchived(true);
+            return timeBlock;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode archived time block " + archived.getId(), e);
+        }
+    }
+
+    private record BatchResult(int archived, Integer lastId) {}
+}
@@ -2,16 +2,28 @@ package com.scheduleplanner.timeblock.service;
 
 import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
 import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.ArchivedTimeBlockRepository;
 import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import com.scheduleplanner.timeblock.shard.ShardRouting;
+import com.scheduleplanner.timeblock.util.ScheduleTimeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -22,11 +34,24 @@ public class TimeBlockService {
     @Autowired
     private TimeBlockRepository timeBlockRepository;
     
+    @Autowired
+    private ArchivedTimeBlockRepository archivedTimeBlockRepository;
+    
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+    
+    @Autowired
+    private ShardRouting shardRouting;
+    
+    @Value("${timeblock.query.max-students:500}")
+    private int maxStudentsPerQuery;
+    
     /**
      * Get all time blocks for a student
      */
     public List<TimeBlockDTO> getTimeBlocksByStudentId(Integer studentId) {
         logger.info("Fetching time blocks for student: {}", studentId);
+        shardRouting.bindStudent(studentId);
         
         List<TimeBlock> timeBlocks = timeBlockRepository.findByStudentIdOrderByDayAscStartTimeAsc(studentId);
         return timeBlocks.stream()
@@ -34,11 +59,36 @@ public class TimeBlockService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get all time blocks for several students, queried on each shard in parallel
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TimeBlockDTO> getTimeBlocksByStudentIds(Collection<Integer> studentIds) {
+        LinkedHashSet<Integer> distinct = new LinkedHashSet<>(studentIds);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one student ID is required");
+        }
+        if (distinct.size() > maxStudentsPerQuery) {
+            throw new IllegalArgumentException("At most " + maxStudentsPerQuery + " students can be queried at once");
+        }
+        logger.info("Fetching time blocks for {} students", distinct.size());
+        
+        List<TimeBlock> timeBlocks = shardRouting.scatterGather(distinct,
+                (shard, students) -> timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(students));
+        // Each shard's rows are already ordered; a stable sort by student keeps that order per student
+        return timeBlocks.stream()
+                .sorted(Comparator.comparing(TimeBlock::getStudentId))
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Get time blocks for a student on a specific day
      */
     public List<TimeBlockDTO> getTimeBlocksByStudentIdAndDay(Integer studentId, String day) {
         logger.info("Fetching time blocks for student: {} on day: {}", studentId, day);
+        shardRouting.bindStudent(studentId);
         
         List<TimeBlock> timeBlocks = timeBlockRepository.findByStudentIdAndDayOrderByStartTimeAsc(studentId, day);
         return timeBlocks.stream()
@@ -51,6 +101,7 @@ public class TimeBlockService {
      */
     public Optional<TimeBlockDTO> getTimeBlockById(Integer id) {
         logger.info("Fetching time block with ID: {}", id);
+        shardRouting.bindTimeBlock(id);
         
         Optional<TimeBlock> timeBlock = timeBlockRepository.findById(id);
         return timeBlock.map(this::convertToDTO);
@@ -61,12 +112,14 @@ public class TimeBlockService {
      */
     public TimeBlockDTO createTimeBlock(TimeBlockDTO timeBlockDTO) {
         logger.info("Creating new time block: {}", timeBlockDTO.getTitle());
+        shardRouting.bindStudentForWrite(timeBlockDTO.getStudentId());
         
         // Validate for conflicts
         validateTimeBlockConflicts(timeBlockDTO, null);
         
         TimeBlock timeBlock = convertToEntity(timeBlockDTO);
         TimeBlock savedTimeBlock = timeBlockRepository.save(timeBlock);
+        calendarFeedService.evict(savedTimeBlock.getStudentId());
         
         logger.info("Created time block with ID: {}", savedTimeBlock.getId());
         return convertToDTO(savedTimeBlock);
@@ -77,6 +130,18 @@ public class TimeBlockService {
      */
     public Optional<TimeBlockDTO> updateTimeBlock(Integer id, TimeBlockDTO timeBlockDTO) {
         logger.info("Updating time block with ID: {}", id);
+        shardRouting.bindTimeBlock(id);
+        
+        // Lock both owners before reading, so the block and the conflict check can't go stale
+        Optional<Integer> storedStudentId = timeBlockRepository.findStudentIdById(id);
+        if (storedStudentId.isEmpty()) {
+            logger.warn("Time block with ID {} not found for update", id);
+            return Optional.empty();
+        }
+        rejectCrossShardMove(id, timeBlockDTO.getStudentId());
+        shardRouting.lockAllForTransaction(Stream.of(storedStudentId.get(), timeBlockDTO.getStudentId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
         
         Optional<TimeBlock> existingTimeBlock = timeBlockRepository.findById(id);
         if (existingTimeBlock.isEmpty()) {
@@ -88,9 +153,15 @@ public class TimeBlockService {
         validateTimeBlockConflicts(timeBlockDTO, id);
         
         TimeBlock timeBlock = existingTimeBlock.get();
+        if (!timeBlock.getStudentId().equals(storedStudentId.get())) {
+            // Reassigned between the lookup and the lock
+            shardRouting.lockForTransaction(timeBlock.getStudentId());
+        }
+        calendarFeedService.evict(timeBlock.getStudentId());
         updateEntityFromDTO(timeBlock, timeBlockDTO);
         
         TimeBlock savedTimeBlock = timeBlockRepository.save(timeBlock);
+        calendarFeedService.evict(savedTimeBlock.getStudentId());
         logger.info("Updated time block with ID: {}", savedTimeBlock.getId());
         
         return Optional.of(convertToDTO(savedTimeBlock));
@@ -101,9 +172,18 @@ public class TimeBlockService {
      */
     public boolean deleteTimeBlock(Integer id) {
         logger.info("Deleting time block with ID: {}", id);
+        shardRouting.bindTimeBlock(id);
+        
+        Optional<Integer> studentId = timeBlockRepository.findStudentIdById(id);
+        studentId.ifPresent(shardRouting::lockForTransaction);
         
-        if (timeBlockRepository.existsById(id)) {
-            timeBlockRepository.deleteById(id);
+        Optional<TimeBlock> timeBlock = timeBlockRepository.findById(id);
+        if (timeBlock.isPresent()) {
+            if (!timeBlock.get().getStudentId().equals(studentId.orElse(null))) {
+                shardRouting.lockForTransaction(timeBlock.get().getStudentId());
+            }
+            timeBlockRepository.delete(timeBlock.get());
+            calendarFeedService.evict(timeBlock.get().getStudentId());
             logger.info("Deleted time block with ID: {}", id);
             return true;
         } else {
@@ -113,12 +193,38 @@ public class TimeBlockService {
     }
     
     /**
-     * Check for conflicts when creating/updating time blocks
+     * Check for conflicts when creating/updating time blocks.
+     * Times are compared as minutes since midnight, the same way placement suggestions and imports do.
+     *
+     * @throws IllegalArgumentException if the day or times cannot be parsed or the range is empty
      */
     public List<TimeBlock> checkConflicts(Integer studentId, String day, String startTime, String endTime, Integer excludeId) {
         logger.info("Checking conflicts for student: {} on day: {} from {} to {}", studentId, day, startTime, endTime);
+        shardRouting.bindStudent(studentId);
+        
+        DayOfWeek dayOfWeek = ScheduleTimeUtils.parseDay(day);
+        int start = ScheduleTimeUtils.parseMinutes(startTime);
+        int end = ScheduleTimeUtils.parseMinutes(endTime);
+        if (end <= start) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
         
-        return timeBlockRepository.findConflictingTimeBlocks(studentId, day, startTime, endTime, excludeId);
+        List<TimeBlock> conflicts = new ArrayList<>();
+        for (TimeBlock existing : timeBlockRepository.findByStudentId(studentId)) {
+            if (existing.getId().equals(excludeId)) {
+                continue;
+            }
+            try {
+                if (ScheduleTimeUtils.parseDay(existing.getDay()) == dayOfWeek
+                        && ScheduleTimeUtils.overlaps(start, end, ScheduleTimeUtils.parseMinutes(existing.getStartTime()),
+                                ScheduleTimeUtils.parseMinutes(existing.getEndTime()))) {
+                    conflicts.add(existing);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping time block {} with unparseable schedule: {}", existing.getId(), e.getMessage());
+            }
+        }
+        return conflicts;
     }
     
     /**
@@ -126,6 +232,7 @@ public class TimeBlockService {
      */
     public List<TimeBlockDTO> getTimeBlocksByType(Integer studentId, String type) {
         logger.info("Fetching time blocks for student: {} of type: {}", studentId, type);
+        shardRouting.bindStudent(studentId);
         
         List<TimeBlock> timeBlocks = timeBlockRepository.findByStudentIdAndType(studentId, type);
         return timeBlocks.stream()
@@ -134,15 +241,27 @@ public class TimeBlockService {
     }
     
     /**
-     * Delete all time blocks for a student
+     * Delete all time blocks for a student, archived ones included
      */
-    public void deleteAllTimeBlocksForStudent(Integer studentId) {
+    public int deleteAllTimeBlocksForStudent(Integer studentId) {
         logger.info("Deleting all time blocks for student: {}", studentId);
-        timeBlockRepository.deleteByStudentId(studentId);
+        shardRouting.bindStudentForWrite(studentId);
+        int deleted = timeBlockRepository.deleteByStudentId(studentId)
+                + archivedTimeBlockRepository.deleteByStudentIdIn(List.of(studentId));
+        calendarFeedService.evict(studentId);
+        logger.info("Deleted {} time blocks for student: {}", deleted, studentId);
+        return deleted;
     }
     
     // Private helper methods
     
+    private void rejectCrossShardMove(Integer id, Integer studentId) {
+        if (shardRouting.isSharded() && studentId != null
+                && shardRouting.shardForStudent(studentId) != shardRouting.shardForTimeBlock(id)) {
+            throw new IllegalArgumentException("Time blocks cannot be reassigned to a student on another shard");
+        }
+    }
+    
     private void validateTimeBlockConflicts(TimeBlockDTO timeBlockDTO, Integer excludeId) {
         List<TimeBlock> conflicts = checkConflicts(
             timeBlockDTO.getStudentId(),
@@ -160,7 +279,7 @@ public class TimeBlockService {
         }
     }
     
-    private TimeBlockDTO convertToDTO(TimeBlock timeBlock) {
+    TimeBlockDTO convertToDTO(TimeBlock timeBlock) {
         return new TimeBlockDTO(
             timeBlock.getId(),
             timeBlock.getTitle(),
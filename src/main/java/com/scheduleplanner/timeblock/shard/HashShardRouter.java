@@ -0,0 +1,33 @@
+package com.scheduleplanner.timeblock.shard;
+
+/**
+ * Spreads students evenly over the buckets by a mixed hash of the student ID
+ */
+public class HashShardRouter implements ShardRouter {
+
+    private final int bucketCount;
+
+    public HashShardRouter(int bucketCount) {
+        if (bucketCount < 1) {
+            throw new IllegalArgumentException("At least one bucket is required");
+        }
+        this.bucketCount = bucketCount;
+    }
+
+    @Override
+    public int bucketFor(int studentId) {
+        // Murmur3 finalizer so sequential IDs don't cluster in one bucket
+        int h = studentId;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, bucketCount);
+    }
+
+    @Override
+    public int bucketCount() {
+        return bucketCount;
+    }
+}
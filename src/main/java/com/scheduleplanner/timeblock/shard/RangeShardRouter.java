@@ -0,0 +1,37 @@
+package com.scheduleplanner.timeblock.shard;
+
+import java.util.List;
+
+/**
+ * Assigns contiguous student ID ranges to buckets.
+ * With bounds [b0, b1, ...], IDs below b0 go to bucket 0, IDs below b1 to bucket 1, and so on;
+ * IDs at or above the last bound go to the last bucket.
+ */
+public class RangeShardRouter implements ShardRouter {
+
+    private final int[] upperBounds;
+
+    public RangeShardRouter(List<Integer> upperBounds) {
+        this.upperBounds = upperBounds.stream().mapToInt(Integer::intValue).toArray();
+        for (int i = 1; i < this.upperBounds.length; i++) {
+            if (this.upperBounds[i] <= this.upperBounds[i - 1]) {
+                throw new IllegalArgumentException("Range bounds must be strictly increasing");
+            }
+        }
+    }
+
+    @Override
+    public int bucketFor(int studentId) {
+        for (int bucket = 0; bucket < upperBounds.length; bucket++) {
+            if (studentId < upperBounds[bucket]) {
+                return bucket;
+            }
+        }
+        return upperBounds.length;
+    }
+
+    @Override
+    public int bucketCount() {
+        return upperBounds.length + 1;
+    }
+}
@@ -0,0 +1,71 @@
+package com.scheduleplanner.timeblock.shard;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's data access is routed to.
+ * Connections are fetched lazily, so the shard only has to be set before the first statement
+ * of a transaction; once bound to a transaction it stays until that transaction completes.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {}
+
+    /**
+     * The current shard, or null to use the default shard
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Route the current transaction to a shard; cleared when the transaction completes.
+     * Outside a transaction this behaves like a plain set that the caller must {@link #clear()}.
+     *
+     * @throws IllegalStateException if the transaction is already bound to another shard
+     */
+    public static void bindToTransaction(int shard) {
+        Integer bound = CURRENT.get();
+        if (bound != null) {
+            if (bound != shard) {
+                throw new IllegalStateException("Transaction is bound to shard " + bound + ", cannot use shard " + shard);
+            }
+            return;
+        }
+        CURRENT.set(shard);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    CURRENT.remove();
+                }
+            });
+        }
+    }
+
+    /**
+     * Run the task routed to a shard, restoring the previous shard afterwards
+     */
+    public static <T> T callOn(int shard, Supplier<T> task) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
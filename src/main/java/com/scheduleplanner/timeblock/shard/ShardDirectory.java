@@ -0,0 +1,314 @@
+package com.scheduleplanner.timeblock.shard;
+
+import com.scheduleplanner.timeblock.config.ShardingProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves which shard holds a student's time blocks.
+ * The router puts each student in a fixed virtual bucket, and shard_buckets on shard 0 maps
+ * buckets to shards; it is seeded round-robin on first start and never recomputed from the
+ * shard count, so adding shards does not reroute anyone. Students moved by the rebalancer are
+ * recorded as overrides in student_shard_assignments on shard 0. Moved time blocks keep their IDs,
+ * so moved_time_blocks maps IDs living outside their shard's ID range to their student, and
+ * shard_move_cleanups lists source copies left behind by moves until every instance has refreshed.
+ * All of it is cached here and refreshed periodically so other instances pick up changes.
+ */
+@Component
+public class ShardDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardDirectory.class);
+
+    private final Map<Integer, Integer> overrides = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastRefresh = new AtomicLong();
+
+    private volatile int[] bucketShards = new int[0];
+
+    /** Moved time block ID to the student it belongs to */
+    private volatile Map<Integer, Integer> movedTimeBlocks = Map.of();
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    private JdbcTemplate directoryJdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        if (routing == null) {
+            return;
+        }
+        directoryJdbcTemplate = new JdbcTemplate(routing.getShards().get(0));
+        directoryJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS shard_buckets ("
+                + "bucket INT NOT NULL PRIMARY KEY, shard INT NOT NULL)");
+        directoryJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS student_shard_assignments ("
+                + "student_id INT NOT NULL PRIMARY KEY, shard INT NOT NULL, moving_since TIMESTAMP NULL)");
+        directoryJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS moved_time_blocks ("
+                + "time_block_id INT NOT NULL PRIMARY KEY, student_id INT NOT NULL)");
+        directoryJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS shard_move_cleanups ("
+                + "student_id INT NOT NULL, shard INT NOT NULL, moved_at TIMESTAMP NOT NULL, PRIMARY KEY (student_id, shard))");
+        seedBuckets(routing.getShards().size());
+        refresh();
+        for (int bucket = 0; bucket < bucketShards.length; bucket++) {
+            if (bucketShards[bucket] >= routing.getShards().size()) {
+                throw new IllegalStateException("Bucket " + bucket + " is mapped to shard " + bucketShards[bucket]
+                        + " but only " + routing.getShards().size() + " shards are configured");
+            }
+        }
+    }
+
+    /**
+     * The shard holding a student's time blocks
+     */
+    public int shardFor(Integer studentId) {
+        if (directoryJdbcTemplate == null || studentId == null) {
+            return 0;
+        }
+        refreshIfStale();
+        Integer override = overrides.get(studentId);
+        return override != null ? override : bucketShard(studentId);
+    }
+
+    /**
+     * The shard holding a time block: its student's shard if it was moved, otherwise the shard whose ID range contains it
+     */
+    public int shardForTimeBlock(Integer timeBlockId) {
+        if (directoryJdbcTemplate == null || timeBlockId == null) {
+            return 0;
+        }
+        refreshIfStale();
+        Integer studentId = movedTimeBlocks.get(timeBlockId);
+        return studentId != null ? shardFor(studentId) : ShardIdRanges.shardForId(timeBlockId, shardingProperties.getMaxShards());
+    }
+
+    /**
+     * The virtual bucket a student hashes or ranges into
+     */
+    public int bucketFor(Integer studentId) {
+        return shardRouter.bucketFor(studentId);
+    }
+
+    public int getBucketCount() {
+        return shardRouter.bucketCount();
+    }
+
+    /**
+     * Number of buckets mapped to a shard
+     */
+    public int getBucketsOn(int shard) {
+        int count = 0;
+        for (int bucketShard : bucketShards) {
+            if (bucketShard == shard) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Record that a student now lives on the given shard
+     */
+    public void assign(Integer studentId, int shard) {
+        if (directoryJdbcTemplate == null) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        if (shard == bucketShard(studentId)) {
+            directoryJdbcTemplate.update("DELETE FROM student_shard_assignments WHERE student_id = ?", studentId);
+            overrides.remove(studentId);
+        } else {
+            int updated = directoryJdbcTemplate.update(
+                    "UPDATE student_shard_assignments SET shard = ?, moving_since = NULL WHERE student_id = ?", shard, studentId);
+            if (updated == 0) {
+                directoryJdbcTemplate.update(
+                        "INSERT INTO student_shard_assignments (student_id, shard) VALUES (?, ?)", studentId, shard);
+            }
+            overrides.put(studentId, shard);
+        }
+        logger.info("Student {} assigned to shard {}", studentId, shard);
+    }
+
+    /**
+     * Record where a student's time blocks live after a move; IDs inside the target's range need no entry.
+     * Entries from earlier moves of the student are replaced, which also drops blocks deleted since.
+     */
+    public void recordMovedTimeBlocks(Integer studentId, List<Integer> timeBlockIds, int targetShard) {
+        directoryJdbcTemplate.update("DELETE FROM moved_time_blocks WHERE student_id = ?", studentId);
+        List<Object[]> entries = timeBlockIds.stream()
+                .filter(id -> ShardIdRanges.shardForId(id, shardingProperties.getMaxShards()) != targetShard)
+                .map(id -> new Object[] {id, studentId})
+                .toList();
+        directoryJdbcTemplate.batchUpdate("INSERT INTO moved_time_blocks (time_block_id, student_id) VALUES (?, ?)", entries);
+        Map<Integer, Integer> moved = new HashMap<>(movedTimeBlocks);
+        moved.values().removeIf(studentId::equals);
+        entries.forEach(entry -> moved.put((Integer) entry[0], studentId));
+        movedTimeBlocks = moved;
+    }
+
+    /**
+     * Schedule the removal of a student's rows left on the source shard of a move
+     */
+    public void scheduleCleanup(Integer studentId, int shard) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (directoryJdbcTemplate.update("UPDATE shard_move_cleanups SET moved_at = ? WHERE student_id = ? AND shard = ?",
+                now, studentId, shard) == 0) {
+            directoryJdbcTemplate.update("INSERT INTO shard_move_cleanups (student_id, shard, moved_at) VALUES (?, ?, ?)",
+                    studentId, shard, now);
+        }
+    }
+
+    /**
+     * Drop a scheduled cleanup, once it ran or because the student is moving back to that shard
+     */
+    public void cancelCleanup(Integer studentId, int shard) {
+        directoryJdbcTemplate.update("DELETE FROM shard_move_cleanups WHERE student_id = ? AND shard = ?", studentId, shard);
+    }
+
+    /**
+     * Cleanups of moves older than the delay, as {student ID, shard} pairs
+     */
+    public List<int[]> findDueCleanups(Duration delay) {
+        if (directoryJdbcTemplate == null) {
+            return List.of();
+        }
+        return directoryJdbcTemplate.query("SELECT student_id, shard FROM shard_move_cleanups WHERE moved_at < ? ORDER BY moved_at",
+                (resultSet, rowNum) -> new int[] {resultSet.getInt(1), resultSet.getInt(2)},
+                Timestamp.valueOf(LocalDateTime.now().minus(delay)));
+    }
+
+    /**
+     * Mark the student as moving, so no other instance starts moving it too.
+     * A claim older than the lease is treated as abandoned by a crashed mover and taken over.
+     *
+     * @throws IllegalStateException if another move of the student holds the claim
+     */
+    public void claimMove(Integer studentId, Duration lease) {
+        if (directoryJdbcTemplate == null) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp abandoned = Timestamp.valueOf(LocalDateTime.now().minus(lease));
+        int claimed = directoryJdbcTemplate.update("UPDATE student_shard_assignments SET moving_since = ? "
+                + "WHERE student_id = ? AND (moving_since IS NULL OR moving_since < ?)", now, studentId, abandoned);
+        if (claimed == 0) {
+            try {
+                directoryJdbcTemplate.update("INSERT INTO student_shard_assignments (student_id, shard, moving_since) "
+                        + "VALUES (?, ?, ?)", studentId, shardFor(studentId), now);
+            } catch (DuplicateKeyException e) {
+                throw new IllegalStateException("Student " + studentId + " is already being moved");
+            }
+        }
+    }
+
+    /**
+     * Drop the moving mark after a move that did not switch the student's shard
+     */
+    public void releaseMove(Integer studentId) {
+        directoryJdbcTemplate.update("DELETE FROM student_shard_assignments WHERE student_id = ? AND shard = ?",
+                studentId, bucketShard(studentId));
+        directoryJdbcTemplate.update("UPDATE student_shard_assignments SET moving_since = NULL WHERE student_id = ?",
+                studentId);
+    }
+
+    /**
+     * Number of students whose shard differs from the router's choice
+     */
+    public int getOverrideCount() {
+        return overrides.size();
+    }
+
+    /**
+     * Reload the bucket map, the overrides and the moved time blocks from shard 0
+     */
+    public void refresh() {
+        if (directoryJdbcTemplate == null) {
+            return;
+        }
+        int[] buckets = new int[shardRouter.bucketCount()];
+        directoryJdbcTemplate.query("SELECT bucket, shard FROM shard_buckets WHERE bucket < ?",
+                resultSet -> {
+                    buckets[resultSet.getInt(1)] = resultSet.getInt(2);
+                }, buckets.length);
+        bucketShards = buckets;
+
+        Map<Integer, Integer> loaded = new ConcurrentHashMap<>();
+        directoryJdbcTemplate.query("SELECT student_id, shard FROM student_shard_assignments",
+                resultSet -> {
+                    loaded.put(resultSet.getInt(1), resultSet.getInt(2));
+                });
+        overrides.keySet().retainAll(loaded.keySet());
+        overrides.putAll(loaded);
+
+        Map<Integer, Integer> moved = new HashMap<>();
+        directoryJdbcTemplate.query("SELECT time_block_id, student_id FROM moved_time_blocks",
+                resultSet -> {
+                    moved.put(resultSet.getInt(1), resultSet.getInt(2));
+                });
+        movedTimeBlocks = moved;
+        lastRefresh.set(System.currentTimeMillis());
+    }
+
+    // Private helper methods
+
+    private int bucketShard(Integer studentId) {
+        return bucketShards[shardRouter.bucketFor(studentId)];
+    }
+
+    /**
+     * Give buckets that have no row yet a shard, round-robin; existing rows are never touched
+     */
+    private void seedBuckets(int shardCount) {
+        Integer seeded = directoryJdbcTemplate.queryForObject("SELECT COUNT(*) FROM shard_buckets", Integer.class);
+        if (seeded != null && seeded >= shardRouter.bucketCount()) {
+            return;
+        }
+        Set<Integer> existing = new HashSet<>(
+                directoryJdbcTemplate.queryForList("SELECT bucket FROM shard_buckets", Integer.class));
+        for (int bucket = 0; bucket < shardRouter.bucketCount(); bucket++) {
+            if (!existing.contains(bucket)) {
+                try {
+                    directoryJdbcTemplate.update("INSERT INTO shard_buckets (bucket, shard) VALUES (?, ?)",
+                            bucket, bucket % shardCount);
+                } catch (DuplicateKeyException e) {
+                    // Another instance seeded it first
+                }
+            }
+        }
+        logger.info("Seeded {} shard buckets over {} shards", shardRouter.bucketCount() - existing.size(), shardCount);
+    }
+
+    private void refreshIfStale() {
+        long last = lastRefresh.get();
+        long now = System.currentTimeMillis();
+        if (now - last >= shardingProperties.getDirectoryRefresh().toMillis() && lastRefresh.compareAndSet(last, now)) {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.warn("Could not refresh the shard directory: {}", e.getMessage());
+            }
+        }
+    }
+}
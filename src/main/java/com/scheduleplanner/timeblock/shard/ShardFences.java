@@ -0,0 +1,95 @@
+package com.scheduleplanner.timeblock.shard;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Per-shard write fences that make student moves safe across instances.
+ * Every shard has a student_shard_fences table. A write transaction locks the student's row on
+ * the shard it writes to (SELECT ... FOR UPDATE) and fails if the row is fenced. The rebalancer
+ * takes the same lock to fence the source shard, which waits for in-flight writes to commit and
+ * keeps later ones out, including those from instances whose directory has not refreshed yet.
+ * A missing row means the student is not fenced on that shard.
+ */
+@Component
+public class ShardFences {
+
+    private static final String LOCK_SQL = "SELECT fenced FROM student_shard_fences WHERE student_id = ? FOR UPDATE";
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate transactionalJdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        if (routing == null) {
+            return;
+        }
+        for (DataSource shard : routing.getShards()) {
+            new JdbcTemplate(shard).execute("CREATE TABLE IF NOT EXISTS student_shard_fences ("
+                    + "student_id INT NOT NULL PRIMARY KEY, fenced BOOLEAN NOT NULL)");
+        }
+        // The primary data source joins the current transaction on whatever shard it is bound to
+        transactionalJdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Lock the student's fence on the current transaction's shard until the transaction completes
+     *
+     * @return false if the student is fenced off this shard
+     */
+    public boolean lockForTransaction(Integer studentId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Student fences can only be locked inside a transaction");
+        }
+        return !lock(transactionalJdbcTemplate, studentId);
+    }
+
+    /**
+     * Lock and fence the student on a shard; the caller's transaction on that shard must be active
+     */
+    public void fence(JdbcTemplate shardJdbcTemplate, Integer studentId) {
+        lock(shardJdbcTemplate, studentId);
+        shardJdbcTemplate.update("UPDATE student_shard_fences SET fenced = TRUE WHERE student_id = ?", studentId);
+    }
+
+    /**
+     * Let writes for the student onto a shard again
+     */
+    public void unfence(JdbcTemplate shardJdbcTemplate, Integer studentId) {
+        shardJdbcTemplate.update("UPDATE student_shard_fences SET fenced = FALSE WHERE student_id = ?", studentId);
+    }
+
+    // Private helper methods
+
+    /**
+     * Lock the student's fence row, creating it unfenced on first use
+     *
+     * @return whether the student is fenced
+     */
+    private boolean lock(JdbcTemplate jdbcTemplate, Integer studentId) {
+        List<Boolean> fenced = jdbcTemplate.queryForList(LOCK_SQL, Boolean.class, studentId);
+        if (fenced.isEmpty()) {
+            try {
+                jdbcTemplate.update("INSERT INTO student_shard_fences (student_id, fenced) VALUES (?, FALSE)", studentId);
+            } catch (DuplicateKeyException e) {
+                // A concurrent writer created it; the lock below waits for that writer
+            }
+            fenced = jdbcTemplate.queryForList(LOCK_SQL, Boolean.class, studentId);
+        }
+        return Boolean.TRUE.equals(fenced.get(0));
+    }
+}
@@ -0,0 +1,138 @@
+package com.scheduleplanner.timeblock.shard;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.jdbc.AbstractReturningWork;
+
+import java.lang.reflect.Member;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Allocates time block IDs from the range of the shard the current transaction is routed to.
+ * Each shard keeps its next free ID in time_block_ids, and instances reserve blocks of
+ * {@link #ALLOCATION_SIZE} IDs from it in a separate short transaction. IDs are assigned by the
+ * service rather than by an identity column, so rows a student move copies to another shard can
+ * keep their IDs without pushing that shard's own counter into a foreign range.
+ */
+public class ShardIdGenerator implements IdentifierGenerator {
+
+    /** Hibernate property carrying timeblock.sharding.max-shards */
+    public static final String MAX_SHARDS_SETTING = "timeblock.sharding.max-shards";
+
+    static final int ALLOCATION_SIZE = 50;
+
+    private final int maxShards;
+
+    /** Per shard, the next ID to hand out and the end of the reserved block */
+    private final Map<Integer, long[]> reserved = new HashMap<>();
+
+    private final Set<Integer> initializedShards = new HashSet<>();
+
+    public ShardIdGenerator(ShardedId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object setting = context.getServiceRegistry().getService(ConfigurationService.class)
+                .getSettings().get(MAX_SHARDS_SETTING);
+        maxShards = setting != null ? Integer.parseInt(setting.toString()) : 1;
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        Integer current = ShardContext.current();
+        int shard = current != null ? current : 0;
+        long[] block = reserved.get(shard);
+        if (block == null || block[0] >= block[1]) {
+            long first = session.getTransactionCoordinator().createIsolationDelegate()
+                    .delegateWork(new AbstractReturningWork<Long>() {
+                        @Override
+                        public Long execute(Connection connection) throws SQLException {
+                            return reserve(connection, shard);
+                        }
+                    }, true);
+            block = new long[] {first, first + ALLOCATION_SIZE};
+            reserved.put(shard, block);
+        }
+        return (int) block[0]++;
+    }
+
+    // Private helper methods
+
+    /**
+     * Reserve the next block of IDs on the shard
+     *
+     * @return the first reserved ID
+     */
+    private long reserve(Connection connection, int shard) throws SQLException {
+        if (initializedShards.add(shard)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS time_block_ids ("
+                        + "shard INT NOT NULL PRIMARY KEY, next_id BIGINT NOT NULL)");
+            }
+        }
+        long lastId = shard == maxShards - 1 ? Integer.MAX_VALUE : ShardIdRanges.firstId(shard + 1, maxShards) - 1L;
+        if (advance(connection, shard) == 0) {
+            try {
+                seed(connection, shard, lastId);
+            } catch (SQLException e) {
+                if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                    throw e;
+                }
+                // Another instance seeded it first
+            }
+            advance(connection, shard);
+        }
+        long next;
+        try (PreparedStatement select = connection.prepareStatement("SELECT next_id FROM time_block_ids WHERE shard = ?")) {
+            select.setInt(1, shard);
+            try (ResultSet resultSet = select.executeQuery()) {
+                resultSet.next();
+                next = resultSet.getLong(1);
+            }
+        }
+        if (next - 1 > lastId) {
+            throw new IllegalStateException("Shard " + shard + " has used up its time block ID range");
+        }
+        return next - ALLOCATION_SIZE;
+    }
+
+    private int advance(Connection connection, int shard) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE time_block_ids SET next_id = next_id + ? WHERE shard = ?")) {
+            update.setInt(1, ALLOCATION_SIZE);
+            update.setInt(2, shard);
+            return update.executeUpdate();
+        }
+    }
+
+    /**
+     * Start after the highest ID already used in the shard's range, archived blocks included
+     */
+    private void seed(Connection connection, int shard, long lastId) throws SQLException {
+        long firstId = ShardIdRanges.firstId(shard, maxShards);
+        long start = firstId;
+        for (String table : new String[] {"time_blocks", "archived_time_blocks"}) {
+            try (PreparedStatement max = connection.prepareStatement("SELECT COALESCE(MAX(time_block_id), 0) FROM " + table
+                    + " WHERE time_block_id BETWEEN ? AND ?")) {
+                max.setLong(1, firstId);
+                max.setLong(2, lastId);
+                try (ResultSet resultSet = max.executeQuery()) {
+                    resultSet.next();
+                    start = Math.max(start, resultSet.getLong(1) + 1);
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO time_block_ids (shard, next_id) VALUES (?, ?)")) {
+            insert.setInt(1, shard);
+            insert.setLong(2, start);
+            insert.executeUpdate();
+        }
+    }
+}
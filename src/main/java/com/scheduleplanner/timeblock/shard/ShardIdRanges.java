@@ -0,0 +1,28 @@
+package com.scheduleplanner.timeblock.shard;
+
+/**
+ * Disjoint time block ID ranges per shard.
+ * Each shard's identity column starts at the beginning of its own slice of the int range, so IDs
+ * stay globally unique (the second-level cache relies on that) and a block's shard follows from its ID.
+ * The int range is split into timeblock.sharding.max-shards slices rather than one per configured
+ * shard, so adding shards never moves the existing ranges.
+ */
+public final class ShardIdRanges {
+
+    private ShardIdRanges() {}
+
+    public static int firstId(int shard, int maxShards) {
+        return shard * blockSize(maxShards) + 1;
+    }
+
+    public static int shardForId(int id, int maxShards) {
+        if (id <= 0) {
+            return 0;
+        }
+        return Math.min((id - 1) / blockSize(maxShards), maxShards - 1);
+    }
+
+    private static int blockSize(int maxShards) {
+        return Integer.MAX_VALUE / maxShards;
+    }
+}
@@ -0,0 +1,12 @@
+package com.scheduleplanner.timeblock.shard;
+
+/**
+ * Thrown when a write reaches a shard the student is being moved off, or has already left.
+ * Nothing was written, so the request can be retried once the directory has caught up.
+ */
+public class ShardMovingException extends RuntimeException {
+
+    public ShardMovingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,261 @@
+package com.scheduleplanner.timeblock.shard;
+
+import com.scheduleplanner.timeblock.cache.TimeBlockCacheEvictor;
+import com.scheduleplanner.timeblock.config.ShardingProperties;
+import com.scheduleplanner.timeblock.dto.ShardMoveDTO;
+import com.scheduleplanner.timeblock.scheduling.ClusterJobLock;
+import com.scheduleplanner.timeblock.service.CalendarFeedService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Moves a student's time blocks to another shard while the service keeps running.
+ * The move is fenced in the databases, so it holds across instances:
+ * <ol>
+ * <li>the student is claimed as moving in student_shard_assignments, so only one mover runs;</li>
+ * <li>the student is fenced on the source shard, which waits for in-flight writes there to
+ * commit and makes later ones fail with {@link ShardMovingException} (reads continue);</li>
+ * <li>rows are copied to the target with their IDs, the moved IDs are recorded in the directory,
+ * the directory is switched and the target is unfenced. The source stays fenced, so instances
+ * whose directory is stale cannot write there; they reload the directory and the client retries.</li>
+ * <li>the source rows stay readable for instances that have not refreshed yet, and are deleted
+ * by a scheduled cleanup once move-cleanup-delay (longer than directory-refresh) has passed.</li>
+ * </ol>
+ * A failure before the switch unfences the source and leaves the student untouched there.
+ */
+@Component
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final String CLEANUP_JOB = "shard-move-cleanup";
+
+    private static final String COLUMNS = "time_block_id, title, day, start_time, end_time, type, description, color, "
+            + "student_id, weeks, created_at, updated_at, expires_at";
+
+    private static final String ARCHIVE_COLUMNS = "time_block_id, student_id, expires_at, archived_at, compressed, payload";
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardFences shardFences;
+
+    @Autowired
+    private TimeBlockCacheEvictor timeBlockCacheEvictor;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private ClusterJobLock clusterJobLock;
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Value("${timeblock.sharding.move-lease:10m}")
+    private Duration moveLease;
+
+    @Value("${timeblock.sharding.move-cleanup-delay:2m}")
+    private Duration moveCleanupDelay;
+
+    @PostConstruct
+    void init() {
+        if (shardingProperties.isEnabled() && moveCleanupDelay.compareTo(shardingProperties.getDirectoryRefresh()) <= 0) {
+            throw new IllegalStateException("timeblock.sharding.move-cleanup-delay (" + moveCleanupDelay
+                    + ") must be longer than directory-refresh (" + shardingProperties.getDirectoryRefresh() + ")");
+        }
+    }
+
+    /**
+     * Move every time block of a student to the target shard and route the student there
+     *
+     * @throws IllegalArgumentException if the target shard does not exist
+     * @throws IllegalStateException if sharding is disabled or another move of the student is running
+     */
+    public synchronized ShardMoveDTO moveStudent(Integer studentId, int targetShard) {
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        if (routing == null) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        List<HikariDataSource> shards = routing.getShards();
+        if (targetShard < 0 || targetShard >= shards.size()) {
+            throw new IllegalArgumentException("Shard " + targetShard + " does not exist");
+        }
+
+        shardDirectory.refresh();
+        shardDirectory.claimMove(studentId, moveLease);
+        int sourceShard = shardDirectory.shardFor(studentId);
+        if (sourceShard == targetShard) {
+            // Also clears a fence left on the student's own shard by an interrupted move
+            inTransaction(shards.get(sourceShard), jdbc -> shardFences.unfence(jdbc, studentId));
+            shardDirectory.releaseMove(studentId);
+            return new ShardMoveDTO(studentId, sourceShard, targetShard, 0);
+        }
+        logger.info("Moving student {} from shard {} to shard {}", studentId, sourceShard, targetShard);
+        return move(studentId, shards.get(sourceShard), sourceShard, shards.get(targetShard), targetShard);
+    }
+
+    @Scheduled(initialDelayString = "${timeblock.sharding.cleanup-interval:PT1M}",
+            fixedDelayString = "${timeblock.sharding.cleanup-interval:PT1M}")
+    public void scheduledCleanup() {
+        if (!shardingProperties.isEnabled()) {
+            return;
+        }
+        try {
+            clusterJobLock.runExclusively(CLEANUP_JOB, moveLease, Duration.ZERO, () -> cleanUpMoves(moveCleanupDelay));
+        } catch (RuntimeException e) {
+            logger.error("Shard move cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the rows moves left on their source shards, for moves older than the given delay
+     *
+     * @return the number of source copies removed
+     */
+    public int cleanUpMoves(Duration olderThan) {
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        if (routing == null) {
+            return 0;
+        }
+        int cleaned = 0;
+        for (int[] cleanup : shardDirectory.findDueCleanups(olderThan)) {
+            int studentId = cleanup[0];
+            int shard = cleanup[1];
+            try {
+                // Holding the move claim keeps a move of the student back to this shard from running meanwhile
+                shardDirectory.claimMove(studentId, moveLease);
+            } catch (IllegalStateException e) {
+                logger.debug("Student {} is being moved; cleaning up shard {} later", studentId, shard);
+                continue;
+            }
+            try {
+                shardDirectory.refresh();
+                if (shardDirectory.shardFor(studentId) != shard) {
+                    inTransaction(routing.getShards().get(shard), jdbc -> {
+                        jdbc.update("DELETE FROM time_blocks WHERE student_id = ?", studentId);
+                        jdbc.update("DELETE FROM archived_time_blocks WHERE student_id = ?", studentId);
+                    });
+                    cleaned++;
+                    logger.info("Removed the rows student {} left on shard {} when it moved", studentId, shard);
+                }
+                shardDirectory.cancelCleanup(studentId, shard);
+            } catch (RuntimeException e) {
+                logger.error("Could not remove the rows student {} left on shard {}: {}", studentId, shard, e.getMessage());
+            } finally {
+                shardDirectory.releaseMove(studentId);
+            }
+        }
+        return cleaned;
+    }
+
+    // Private helper methods
+
+    private ShardMoveDTO move(Integer studentId, HikariDataSource source, int sourceShard,
+                              HikariDataSource target, int targetShard) {
+        JdbcTemplate sourceJdbc = new JdbcTemplate(source);
+        JdbcTemplate targetJdbc = new JdbcTemplate(target);
+
+        List<Object[]> rows;
+        List<Object[]> archivedRows;
+        try {
+            // Waits for writes holding the student's fence on the source, then keeps new ones out
+            inTransaction(source, jdbc -> shardFences.fence(jdbc, studentId));
+            rows = sourceJdbc.query("SELECT time_block_id, " + COLUMNS + " FROM time_blocks WHERE student_id = ?",
+                    (resultSet, rowNum) -> new Object[] {
+                            resultSet.getInt("time_block_id"),
+                            resultSet.getString("title"),
+                            resultSet.getString("day"),
+                            resultSet.getString("start_time"),
+                            resultSet.getString("end_time"),
+                            resultSet.getString("type"),
+                            resultSet.getString("description"),
+                            resultSet.getString("color"),
+                            resultSet.getInt("student_id"),
+                            resultSet.getObject("weeks", Integer.class),
+                            resultSet.getObject("created_at", Timestamp.class),
+                            resultSet.getObject("updated_at", Timestamp.class),
+                            resultSet.getObject("expires_at", Timestamp.class)
+                    }, studentId);
+            // Archived blocks keep their IDs: they are only ever looked up by student
+            archivedRows = sourceJdbc.query("SELECT " + ARCHIVE_COLUMNS + " FROM archived_time_blocks WHERE student_id = ?",
+                    (resultSet, rowNum) -> new Object[] {
+                            resultSet.getInt("time_block_id"),
+                            resultSet.getInt("student_id"),
+                            resultSet.getObject("expires_at", Timestamp.class),
+                            resultSet.getObject("archived_at", Timestamp.class),
+                            resultSet.getBoolean("compressed"),
+                            resultSet.getBytes("payload")
+                    }, studentId);
+            inTransaction(target, jdbc -> {
+                // Leftovers of an earlier move whose cleanup failed; the student is not routed here yet
+                jdbc.update("DELETE FROM time_blocks WHERE student_id = ?", studentId);
+                jdbc.update("DELETE FROM archived_time_blocks WHERE student_id = ?", studentId);
+                jdbc.batchUpdate("INSERT INTO time_blocks (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        rows);
+                jdbc.batchUpdate("INSERT INTO archived_time_blocks (" + ARCHIVE_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)",
+                        archivedRows);
+            });
+            // The target's copy replaces any copy an earlier move away from it left behind
+            shardDirectory.cancelCleanup(studentId, targetShard);
+            shardDirectory.recordMovedTimeBlocks(studentId, rows.stream().map(row -> (Integer) row[0]).toList(), targetShard);
+            shardDirectory.assign(studentId, targetShard);
+        } catch (RuntimeException e) {
+            logger.error("Could not move student {} to shard {}, leaving it on shard {}: {}",
+                    studentId, targetShard, sourceShard, e.getMessage());
+            targetJdbc.update("DELETE FROM time_blocks WHERE student_id = ?", studentId);
+            targetJdbc.update("DELETE FROM archived_time_blocks WHERE student_id = ?", studentId);
+            inTransaction(source, jdbc -> shardFences.unfence(jdbc, studentId));
+            shardDirectory.releaseMove(studentId);
+            throw e;
+        }
+        List<Integer> sourceIds = rows.stream().map(row -> (Integer) row[0]).toList();
+
+        try {
+            // Only after the switch, so writers routed here by an old move of the student stay out until now
+            inTransaction(target, jdbc -> shardFences.unfence(jdbc, studentId));
+        } catch (RuntimeException e) {
+            logger.error("Student {} moved to shard {} but is still fenced there; move it to shard {} again to clear: {}",
+                    studentId, targetShard, targetShard, e.getMessage());
+        }
+
+        try {
+            // Instances that have not refreshed their directory still read the source until then
+            shardDirectory.scheduleCleanup(studentId, sourceShard);
+        } catch (RuntimeException e) {
+            logger.error("Student {} moved to shard {} but the cleanup of shard {} could not be scheduled: {}",
+                    studentId, targetShard, sourceShard, e.getMessage());
+        } finally {
+            timeBlockCacheEvictor.evictTimeBlocks(sourceIds);
+            calendarFeedService.evict(studentId);
+        }
+
+        logger.info("Moved {} time blocks ({} archived) of student {} from shard {} to shard {}",
+                rows.size() + archivedRows.size(), archivedRows.size(), studentId, sourceShard, targetShard);
+        return new ShardMoveDTO(studentId, sourceShard, targetShard, rows.size() + archivedRows.size());
+    }
+
+    private void inTransaction(HikariDataSource shard, Consumer<JdbcTemplate> work) {
+        JdbcTemplate jdbc = new JdbcTemplate(shard);
+        new TransactionTemplate(new DataSourceTransactionManager(shard)).executeWithoutResult(status -> work.accept(jdbc));
+    }
+}
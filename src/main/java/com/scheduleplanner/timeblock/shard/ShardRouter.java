@@ -0,0 +1,12 @@
+package com.scheduleplanner.timeblock.shard;
+
+/**
+ * Maps a student to one of a fixed number of virtual buckets.
+ * The bucket count never changes with the number of shards; {@link ShardDirectory} maps buckets to shards.
+ */
+public interface ShardRouter {
+
+    int bucketFor(int studentId);
+
+    int bucketCount();
+}
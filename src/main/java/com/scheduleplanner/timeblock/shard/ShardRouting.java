@@ -0,0 +1,206 @@
+package com.scheduleplanner.timeblock.shard;
+
+import com.scheduleplanner.timeblock.config.ShardingProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Picks the shard for service calls and fans multi-student reads out over the shards.
+ * Writes lock the student's fence row on their shard until the transaction commits (see
+ * {@link ShardFences}), so the rebalancer never moves a student under an in-flight write on any
+ * instance. With sharding disabled every method is a no-op over a single shard.
+ */
+@Component
+public class ShardRouting {
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardFences shardFences;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService scatterExecutor;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @PostConstruct
+    void start() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        if (isSharded()) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            scatterExecutor = Executors.newFixedThreadPool(shardingProperties.getScatterThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "shard-scatter-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isSharded() {
+        return shardingProperties.isEnabled();
+    }
+
+    public int getShardCount() {
+        return shardingProperties.getShardCount();
+    }
+
+    /**
+     * The shard currently holding a student's time blocks
+     */
+    public int shardForStudent(Integer studentId) {
+        return isSharded() ? shardDirectory.shardFor(studentId) : 0;
+    }
+
+    /**
+     * Route the current transaction to the student's shard
+     */
+    public void bindStudent(Integer studentId) {
+        if (isSharded()) {
+            ShardContext.bindToTransaction(shardDirectory.shardFor(studentId));
+        }
+    }
+
+    /**
+     * Route the current transaction to the student's shard and keep the student from being
+     * moved until the transaction completes
+     *
+     * @throws ShardMovingException if the student is being moved off that shard
+     */
+    public void bindStudentForWrite(Integer studentId) {
+        if (!isSharded()) {
+            return;
+        }
+        ShardContext.bindToTransaction(shardDirectory.shardFor(studentId));
+        lockForTransaction(studentId);
+    }
+
+    /**
+     * Keep a student from being moved off the transaction's shard until the transaction completes
+     *
+     * @throws ShardMovingException if the student is being moved off that shard, or already was
+     */
+    public void lockForTransaction(Integer studentId) {
+        if (!tryLockForTransaction(studentId)) {
+            // Most likely this instance's directory is stale; reload it so a retry goes to the right shard
+            shardDirectory.refresh();
+            throw new ShardMovingException("Student " + studentId + " is being moved to another shard; retry shortly");
+        }
+    }
+
+    /**
+     * Lock several students, in ascending order so concurrent transactions cannot deadlock
+     */
+    public void lockAllForTransaction(Collection<Integer> studentIds) {
+        new TreeSet<>(studentIds).forEach(this::lockForTransaction);
+    }
+
+    /**
+     * Like {@link #lockForTransaction(Integer)}, but reports a fenced student instead of failing
+     *
+     * @return false if the student is fenced off the transaction's shard
+     */
+    public boolean tryLockForTransaction(Integer studentId) {
+        if (!isSharded() || studentId == null) {
+            return true;
+        }
+        return shardFences.lockForTransaction(studentId);
+    }
+
+    /**
+     * Route the current transaction to the shard holding the time block
+     */
+    public void bindTimeBlock(Integer timeBlockId) {
+        if (isSharded() && timeBlockId != null) {
+            ShardContext.bindToTransaction(shardForTimeBlock(timeBlockId));
+        }
+    }
+
+    /**
+     * The shard holding the time block, following the directory for blocks moved with their student
+     */
+    public int shardForTimeBlock(Integer timeBlockId) {
+        return isSharded() ? shardDirectory.shardForTimeBlock(timeBlockId) : 0;
+    }
+
+    /**
+     * Group students by the shard that holds them, in shard order
+     */
+    public Map<Integer, List<Integer>> groupByShard(Collection<Integer> studentIds) {
+        Map<Integer, List<Integer>> byShard = new TreeMap<>();
+        for (Integer studentId : studentIds) {
+            byShard.computeIfAbsent(shardDirectory.shardFor(studentId), shard -> new ArrayList<>()).add(studentId);
+        }
+        return byShard;
+    }
+
+    /**
+     * Run a read-only query per shard for the students it holds, in parallel across shards,
+     * and concatenate the results in shard order
+     */
+    public <T> List<T> scatterGather(Collection<Integer> studentIds, BiFunction<Integer, List<Integer>, List<T>> query) {
+        Map<Integer, List<Integer>> byShard = groupByShard(studentIds);
+        if (scatterExecutor == null || byShard.size() <= 1) {
+            List<T> results = new ArrayList<>();
+            byShard.forEach((shard, students) -> results.addAll(queryShard(shard, students, query)));
+            return results;
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        byShard.forEach((shard, students) -> futures.add(
+                CompletableFuture.supplyAsync(() -> queryShard(shard, students, query), scatterExecutor)));
+        List<T> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<T>> future : futures) {
+                results.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    // Private helper methods
+
+    private <T> List<T> queryShard(int shard, List<Integer> students, BiFunction<Integer, List<Integer>, List<T>> query) {
+        if (!isSharded()) {
+            return readOnlyTransactionTemplate.execute(status -> query.apply(shard, students));
+        }
+        return ShardContext.callOn(shard, () ->
+                readOnlyTransactionTemplate.execute(status -> query.apply(shard, students)));
+    }
+}
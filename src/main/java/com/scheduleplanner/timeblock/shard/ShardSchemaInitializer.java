@@ -0,0 +1,72 @@
+package com.scheduleplanner.timeblock.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prepares every shard once the EntityManagerFactory is built.
+ * Hibernate's own schema management only reaches the default shard, so the same schema update
+ * is replayed against the others. IDs come from each shard's range through {@link ShardIdGenerator}.
+ */
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    private static final Set<String> SCHEMA_UPDATING_MODES = Set.of("update", "create", "create-drop");
+
+    private final ShardRoutingDataSource routingDataSource;
+
+    private volatile Metadata metadata;
+
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    public ShardSchemaInitializer(ShardRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate metadata was not captured; shard schemas cannot be initialized");
+        }
+        List<HikariDataSource> shards = routingDataSource.getShards();
+        Object ddlAuto = sessionFactory.getProperties().get(AvailableSettings.HBM2DDL_AUTO);
+        if (ddlAuto != null && SCHEMA_UPDATING_MODES.contains(ddlAuto.toString())) {
+            Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+            settings.put(AvailableSettings.HBM2DDL_AUTO, "update");
+            for (int shard = 1; shard < shards.size(); shard++) {
+                logger.info("Updating schema on shard {}", shard);
+                ShardContext.callOn(shard, () -> {
+                    SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), settings, action -> {});
+                    return null;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.scheduleplanner.timeblock.shard;
+
+import com.scheduleplanner.timeblock.config.ShardingProperties;
+import com.scheduleplanner.timeblock.dto.ShardMoveDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint showing the shard layout at /actuator/shards, the shard of a student at
+ * /actuator/shards/{studentId}, and moving a student with POST /actuator/shards/{studentId}
+ * and a body of {"targetShard": n}.
+ */
+@Component
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @ReadOperation
+    public Map<String, Object> layout() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", shardingProperties.isEnabled());
+        result.put("strategy", shardingProperties.getStrategy());
+        result.put("shardCount", shardingProperties.getShardCount());
+        result.put("maxShards", shardingProperties.getMaxShards());
+        result.put("bucketCount", shardDirectory.getBucketCount());
+        result.put("movedStudents", shardDirectory.getOverrideCount());
+
+        List<Map<String, Object>> shards = new ArrayList<>();
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        if (routing != null) {
+            for (int i = 0; i < routing.getShards().size(); i++) {
+                HikariDataSource pool = routing.getShards().get(i);
+                HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+                Map<String, Object> shard = new LinkedHashMap<>();
+                shard.put("shard", i);
+                shard.put("firstTimeBlockId", ShardIdRanges.firstId(i, shardingProperties.getMaxShards()));
+                shard.put("buckets", shardDirectory.getBucketsOn(i));
+                shard.put("activeConnections", bean == null ? 0 : bean.getActiveConnections());
+                shard.put("threadsAwaitingConnection", bean == null ? 0 : bean.getThreadsAwaitingConnection());
+                shards.add(shard);
+            }
+        }
+        result.put("shards", shards);
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> student(@Selector Integer studentId) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("studentId", studentId);
+        result.put("bucket", shardDirectory.bucketFor(studentId));
+        result.put("shard", shardDirectory.shardFor(studentId));
+        return result;
+    }
+
+    @WriteOperation
+    public ShardMoveDTO move(@Selector Integer studentId, int targetShard) {
+        return shardRebalancer.moveStudent(studentId, targetShard);
+    }
+}
@@ -0,0 +1,395 @@
+package com.scheduleplanner.timeblock.util;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for iCalendar (RFC 5545) data.
+ * Content lines are unfolded and handled one at a time, and each VEVENT is handed to the
+ * consumer as soon as it is closed, so the input is never held in memory as a whole. The input
+ * is capped at maxBytes and each unfolded content line at MAX_LINE_LENGTH characters.
+ * Date-times in UTC or with a TZID are converted to the schedule's zone; floating ones are kept as is.
+ */
+public class ICalendarParser {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // Longest unfolded content line accepted; generous for long DESCRIPTIONs
+    public static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final int maxEvents;
+
+    private final long maxBytes;
+
+    private final ZoneId zone;
+
+    public ICalendarParser(int maxEvents, long maxBytes, ZoneId zone) {
+        this.maxEvents = maxEvents;
+        this.maxBytes = maxBytes;
+        this.zone = zone;
+    }
+
+    /**
+     * Parse the stream, handing every VEVENT to the consumer in file order
+     */
+    public void parse(InputStream inputStream, Consumer<Event> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new LimitedInputStream(inputStream, maxBytes), StandardCharsets.UTF_8));
+        Deque<String> components = new ArrayDeque<>();
+        Map<String, Property> properties = null;
+        int[] eventCount = {0};
+        Consumer<Event> counting = event -> {
+            if (++eventCount[0] > maxEvents) {
+                throw new IllegalArgumentException("Calendar contains more than " + maxEvents + " events");
+            }
+            consumer.accept(event);
+        };
+
+        StringBuilder pending = new StringBuilder();
+        StringBuilder line = new StringBuilder();
+        while (readLine(reader, line)) {
+            // Folded lines continue with a single space or tab
+            if (!line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t')) {
+                if (!pending.isEmpty()) {
+                    if (pending.length() + line.length() - 1 > MAX_LINE_LENGTH) {
+                        throw new IllegalArgumentException("Content line longer than " + MAX_LINE_LENGTH + " characters");
+                    }
+                    pending.append(line, 1, line.length());
+                }
+                continue;
+            }
+            if (!pending.isEmpty()) {
+                properties = handleLine(pending.toString(), components, properties, counting);
+            }
+            pending.setLength(0);
+            pending.append(line);
+        }
+        if (!pending.isEmpty()) {
+            handleLine(pending.toString(), components, properties, counting);
+        }
+        if (!components.isEmpty()) {
+            throw new IllegalArgumentException("Unterminated component: " + components.peek());
+        }
+    }
+
+    /**
+     * Read one physical line (without its CR/LF) into line, failing once it exceeds MAX_LINE_LENGTH
+     *
+     * @return false at the end of the input
+     */
+    private static boolean readLine(BufferedReader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                return true;
+            }
+            if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                return true;
+            }
+            if (line.length() == MAX_LINE_LENGTH) {
+                throw new IllegalArgumentException("Content line longer than " + MAX_LINE_LENGTH + " characters");
+            }
+            line.append((char) c);
+        }
+        return !line.isEmpty();
+    }
+
+    private Map<String, Property> handleLine(String line, Deque<String> components,
+                                             Map<String, Property> properties, Consumer<Event> consumer) {
+        Property property = Property.parse(line);
+        if ("BEGIN".equals(property.getName())) {
+            String component = property.getValue().toUpperCase(Locale.US);
+            components.push(component);
+            return "VEVENT".equals(component) ? new HashMap<>() : properties;
+        }
+        if ("END".equals(property.getName())) {
+            String component = property.getValue().toUpperCase(Locale.US);
+            if (components.isEmpty() || !components.peek().equals(component)) {
+                throw new IllegalArgumentException("Unexpected END:" + property.getValue());
+            }
+            components.pop();
+            if ("VEVENT".equals(component)) {
+                consumer.accept(new Event(properties, zone));
+                return null;
+            }
+            return properties;
+        }
+        // Only collect properties that belong directly to a VEVENT (not its VALARMs)
+        if (properties != null && "VEVENT".equals(components.peek())) {
+            properties.putIfAbsent(property.getName(), property);
+        }
+        return properties;
+    }
+
+    /**
+     * Fails the parse once more than maxBytes have been read, whatever the transport limited
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, (int) Math.min(length, maxBytes - read + 1));
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(long n) {
+            read += n;
+            if (read > maxBytes) {
+                throw new IllegalArgumentException("Calendar is larger than " + maxBytes + " bytes");
+            }
+        }
+    }
+
+    /**
+     * A single content line: NAME;PARAM=VALUE:value
+     */
+    public static class Property {
+
+        private final String name;
+        private final Map<String, String> parameters;
+        private final String value;
+
+        private Property(String name, Map<String, String> parameters, String value) {
+            this.name = name;
+            this.parameters = parameters;
+            this.value = value;
+        }
+
+        static Property parse(String line) {
+            int colon = indexOfValueSeparator(line);
+            if (colon < 0) {
+                throw new IllegalArgumentException("Malformed content line: " + line);
+            }
+            String[] head = line.substring(0, colon).split(";");
+            Map<String, String> parameters = new HashMap<>();
+            for (int i = 1; i < head.length; i++) {
+                int eq = head[i].indexOf('=');
+                if (eq > 0) {
+                    parameters.put(head[i].substring(0, eq).toUpperCase(Locale.US),
+                            head[i].substring(eq + 1).replace("\"", ""));
+                }
+            }
+            return new Property(head[0].toUpperCase(Locale.US), parameters, line.substring(colon + 1));
+        }
+
+        private static int indexOfValueSeparator(String line) {
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ':' && !quoted) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getParameter(String parameter) {
+            return parameters.get(parameter);
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * The properties of one VEVENT with typed accessors for the ones the import uses
+     */
+    public static class Event {
+
+        private final Map<String, Property> properties;
+
+        private final ZoneId zone;
+
+        Event(Map<String, Property> properties, ZoneId zone) {
+            this.properties = properties;
+            this.zone = zone;
+        }
+
+        public String getUid() {
+            return text("UID");
+        }
+
+        public String getSummary() {
+            return text("SUMMARY");
+        }
+
+        public String getDescription() {
+            return text("DESCRIPTION");
+        }
+
+        public String getLocation() {
+            return text("LOCATION");
+        }
+
+        public String getFirstCategory() {
+            String categories = text("CATEGORIES");
+            if (categories == null) {
+                return null;
+            }
+            String first = categories.split(",")[0].trim();
+            return first.isEmpty() ? null : first;
+        }
+
+        public boolean isAllDay(String name) {
+            Property property = properties.get(name);
+            return property != null && ("DATE".equalsIgnoreCase(property.getParameter("VALUE"))
+                    || property.getValue().trim().length() == 8);
+        }
+
+        /**
+         * Date-time of DTSTART/DTEND as wall-clock time in the schedule's zone
+         */
+        public LocalDateTime getDateTime(String name) {
+            Property property = properties.get(name);
+            return property == null ? null : parseDateTime(property.getValue(), property.getParameter("TZID"), zone);
+        }
+
+        /**
+         * Days the conversion to the schedule's zone moved DTSTART/DTEND by, e.g. -1 for 03:00 UTC in
+         * Los Angeles; BYDAY days are given in the event's own zone and need the same shift
+         */
+        public int getDayShift(String name) {
+            Property property = properties.get(name);
+            if (property == null) {
+                return 0;
+            }
+            LocalDate written = parseDateTime(property.getValue(), property.getParameter("TZID"), null).toLocalDate();
+            return (int) ChronoUnit.DAYS.between(written, getDateTime(name).toLocalDate());
+        }
+
+        /**
+         * UNTIL of the RRULE in the schedule's zone, or null when the rule has none
+         */
+        public LocalDateTime getRecurrenceUntil() {
+            Map<String, String> rule = getRecurrenceRule();
+            return rule == null || !rule.containsKey("UNTIL") ? null : parseDateTime(rule.get("UNTIL"), null, zone);
+        }
+
+        public String getRawValue(String name) {
+            Property property = properties.get(name);
+            return property == null ? null : property.getValue();
+        }
+
+        public Map<String, String> getRecurrenceRule() {
+            Property property = properties.get("RRULE");
+            if (property == null) {
+                return null;
+            }
+            Map<String, String> rule = new HashMap<>();
+            for (String part : property.getValue().split(";")) {
+                int eq = part.indexOf('=');
+                if (eq > 0) {
+                    rule.put(part.substring(0, eq).toUpperCase(Locale.US), part.substring(eq + 1).toUpperCase(Locale.US));
+                }
+            }
+            return rule;
+        }
+
+        private String text(String name) {
+            Property property = properties.get(name);
+            return property == null ? null : unescape(property.getValue());
+        }
+    }
+
+    /**
+     * Parse a DATE or DATE-TIME value into wall-clock time in the given zone.
+     * UTC values (trailing Z) and values with a known TZID are converted; DATE values, floating
+     * values and TZIDs Java does not know (e.g. Windows zone names) are taken as already local.
+     * A null zone keeps the value as written.
+     */
+    public static LocalDateTime parseDateTime(String value, String tzid, ZoneId zone) {
+        String trimmed = value.trim();
+        boolean utc = trimmed.endsWith("Z") || trimmed.endsWith("z");
+        if (utc) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        LocalDateTime local;
+        try {
+            if (trimmed.length() == 8) {
+                return LocalDate.parse(trimmed, DATE).atStartOfDay();
+            }
+            local = LocalDateTime.parse(trimmed, DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date-time: " + value);
+        }
+        ZoneId source = utc ? ZoneOffset.UTC : resolveZone(tzid);
+        return source == null || zone == null ? local : local.atZone(source).withZoneSameInstant(zone).toLocalDateTime();
+    }
+
+    private static ZoneId resolveZone(String tzid) {
+        if (tzid == null || tzid.isBlank()) {
+            return null;
+        }
+        try {
+            return ZoneId.of(tzid.trim());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.scheduleplanner.timeblock.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Minimal iCalendar (RFC 5545) writer: escapes text values, folds long lines and uses CRLF endings.
+ */
+public class ICalendarWriter {
+
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final StringBuilder output = new StringBuilder();
+
+    public ICalendarWriter begin(String component) {
+        return line("BEGIN:" + component);
+    }
+
+    public ICalendarWriter end(String component) {
+        return line("END:" + component);
+    }
+
+    public ICalendarWriter property(String name, String value) {
+        return line(name + ":" + value);
+    }
+
+    public ICalendarWriter text(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        return line(name + ":" + escape(value));
+    }
+
+    /**
+     * Floating local date-time, interpreted in the subscriber's own time zone
+     */
+    public ICalendarWriter localDateTime(String name, LocalDateTime value) {
+        return line(name + ":" + value.format(LOCAL_DATE_TIME));
+    }
+
+    public ICalendarWriter utcDateTime(String name, LocalDateTime value) {
+        return line(name + ":" + value.atOffset(ZoneOffset.UTC).format(UTC_DATE_TIME));
+    }
+
+    public byte[] toBytes() {
+        return output.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private ICalendarWriter line(String line) {
+        int octets = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int width = c < 0x80 ? 1 : (c < 0x800 || Character.isSurrogate(c) ? 2 : 3);
+            if (octets + width > MAX_LINE_OCTETS && !Character.isLowSurrogate(c)) {
+                output.append("\r\n ");
+                octets = 1;
+            }
+            output.append(c);
+            octets += width;
+        }
+        output.append("\r\n");
+        return this;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,76 @@
+package com.scheduleplanner.timeblock.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * Helpers for the day and time strings stored on a time block.
+ * Days are full English names ("Monday") and times are 12-hour clock strings ("2:00 PM"),
+ * although 24-hour strings ("14:00") are accepted when parsing.
+ */
+public final class ScheduleTimeUtils {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final DateTimeFormatter TWELVE_HOUR = DateTimeFormatter.ofPattern("h:mm a", Locale.US);
+    private static final DateTimeFormatter TWENTY_FOUR_HOUR = DateTimeFormatter.ofPattern("H:mm", Locale.US);
+
+    private ScheduleTimeUtils() {}
+
+    /**
+     * Parse a stored time string into minutes since midnight
+     */
+    public static int parseMinutes(String time) {
+        if (time == null || time.isBlank()) {
+            throw new IllegalArgumentException("Time is required");
+        }
+        String normalized = time.trim().toUpperCase(Locale.US);
+        try {
+            LocalTime parsed = normalized.endsWith("AM") || normalized.endsWith("PM")
+                    ? LocalTime.parse(normalized.replaceAll("\\s*([AP]M)$", " $1"), TWELVE_HOUR)
+                    : LocalTime.parse(normalized, TWENTY_FOUR_HOUR);
+            return parsed.getHour() * 60 + parsed.getMinute();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time: " + time);
+        }
+    }
+
+    /**
+     * Format minutes since midnight as a stored time string
+     */
+    public static String formatMinutes(int minutes) {
+        return LocalTime.of(minutes / 60, minutes % 60).format(TWELVE_HOUR);
+    }
+
+    /**
+     * Parse a stored day name, case-insensitively
+     */
+    public static DayOfWeek parseDay(String day) {
+        if (day == null || day.isBlank()) {
+            throw new IllegalArgumentException("Day is required");
+        }
+        try {
+            return DayOfWeek.valueOf(day.trim().toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid day: " + day);
+        }
+    }
+
+    /**
+     * Format a day of week as a stored day name
+     */
+    public static String formatDay(DayOfWeek day) {
+        return day.getDisplayName(TextStyle.FULL, Locale.US);
+    }
+
+    /**
+     * Check whether two half-open minute ranges overlap
+     */
+    public static boolean overlaps(int startA, int endA, int startB, int endB) {
+        return startA < endB && startB < endA;
+    }
+}
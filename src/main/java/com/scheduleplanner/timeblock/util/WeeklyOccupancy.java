@@ -0,0 +1,67 @@
+package com.scheduleplanner.timeblock.util;
+
+import java.time.DayOfWeek;
+
+/**
+ * A student's week as a bitmap of 5-minute slots (7 x 288 bits in 32 longs).
+ * Occupied ranges are rounded outwards to whole slots, so a range reported free never
+ * touches an existing block; checking a range costs a few word masks regardless of how
+ * many blocks the week holds.
+ */
+public final class WeeklyOccupancy {
+
+    public static final int SLOT_MINUTES = 5;
+
+    public static final int SLOTS_PER_DAY = ScheduleTimeUtils.MINUTES_PER_DAY / SLOT_MINUTES;
+
+    private final long[] words = new long[(7 * SLOTS_PER_DAY + 63) / 64];
+
+    /**
+     * Mark the half-open minute range [startMinute, endMinute) of a day as occupied
+     */
+    public void occupy(DayOfWeek day, int startMinute, int endMinute) {
+        if (endMinute <= startMinute) {
+            return;
+        }
+        int from = slotIndex(day, Math.max(0, startMinute) / SLOT_MINUTES);
+        int to = slotIndex(day, (Math.min(endMinute, ScheduleTimeUtils.MINUTES_PER_DAY) + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        for (int word = from >>> 6; word <= (to - 1) >>> 6; word++) {
+            words[word] |= mask(word, from, to);
+        }
+    }
+
+    /**
+     * Check whether the half-open slot range [startSlot, endSlot) of a day is entirely free
+     */
+    public boolean isFree(DayOfWeek day, int startSlot, int endSlot) {
+        if (startSlot < 0 || endSlot > SLOTS_PER_DAY || endSlot <= startSlot) {
+            return false;
+        }
+        int from = slotIndex(day, startSlot);
+        int to = slotIndex(day, endSlot);
+        for (int word = from >>> 6; word <= (to - 1) >>> 6; word++) {
+            if ((words[word] & mask(word, from, to)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slotIndex(DayOfWeek day, int slot) {
+        return (day.getValue() - 1) * SLOTS_PER_DAY + slot;
+    }
+
+    /**
+     * Bits of the given word that fall inside [from, to)
+     */
+    private static long mask(int word, int from, int to) {
+        long mask = -1L;
+        if (word == from >>> 6) {
+            mask &= -1L << (from & 63);
+        }
+        if (word == (to - 1) >>> 6) {
+            mask &= -1L >>> (63 - ((to - 1) & 63));
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,139 @@
+package com.scheduleplanner.timeblock.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkheads.forEach(Bulkhead::shutdown);
+    }
+
+    @Test
+    void rejectsWorkBeyondThreadsAndQueue() throws Exception {
+        Bulkhead bulkhead = bulkhead("read", 1, 1, Duration.ofSeconds(10));
+        CountDownLatch started = new CountDownLatch(1);
+        occupy(bulkhead, started);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        occupy(bulkhead, new CountDownLatch(1));
+        awaitQueued("read", 1);
+
+        BulkheadRejectedException e = assertThrows(BulkheadRejectedException.class, () -> bulkhead.execute(() -> "late"));
+
+        assertFalse(e instanceof BulkheadTimeoutException);
+        assertEquals(1, meterRegistry.get("timeblock.bulkhead.rejected").tag("bulkhead", "read").counter().count());
+    }
+
+    @Test
+    void cancelsOperationsThatOutliveTheTimeout() throws Exception {
+        Bulkhead bulkhead = bulkhead("write", 1, 1, Duration.ofMillis(200));
+        CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+
+        assertThrows(BulkheadTimeoutException.class, () -> bulkhead.execute(() -> {
+            try {
+                release.await();
+                interrupted.complete(false);
+            } catch (InterruptedException e) {
+                interrupted.complete(true);
+            }
+            return null;
+        }));
+
+        assertTrue(interrupted.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("timeblock.bulkhead.timeouts").tag("bulkhead", "write").counter().count());
+    }
+
+    @Test
+    void fullBulkheadDoesNotAffectTheOther() throws Exception {
+        Bulkhead writes = bulkhead("write", 1, 1, Duration.ofSeconds(10));
+        Bulkhead reads = bulkhead("read", 1, 1, Duration.ofSeconds(10));
+        CountDownLatch started = new CountDownLatch(1);
+        occupy(writes, started);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        occupy(writes, new CountDownLatch(1));
+        awaitQueued("write", 1);
+
+        assertThrows(BulkheadRejectedException.class, () -> writes.execute(() -> "write"));
+        assertEquals("read", reads.execute(() -> "read"));
+    }
+
+    @Test
+    void exposesTheDeadlineOnlyToTheRunningOperation() throws Exception {
+        Bulkhead bulkhead = bulkhead("read", 1, 1, Duration.ofSeconds(3));
+
+        Duration remaining = bulkhead.execute(Bulkhead::remainingTime);
+
+        assertNotNull(remaining);
+        assertTrue(remaining.compareTo(Duration.ofSeconds(3)) <= 0 && remaining.compareTo(Duration.ZERO) > 0);
+        assertNull(Bulkhead.remainingTime());
+        assertNull(bulkhead.execute(() -> null));
+    }
+
+    @Test
+    void rethrowsTaskExceptionsUnchanged() {
+        Bulkhead bulkhead = bulkhead("write", 1, 1, Duration.ofSeconds(3));
+
+        Exception e = assertThrows(Exception.class, () -> bulkhead.execute(() -> {
+            throw new IllegalArgumentException("conflict");
+        }));
+
+        assertInstanceOf(IllegalArgumentException.class, e);
+        assertEquals("conflict", e.getMessage());
+    }
+
+    private Bulkhead bulkhead(String name, int threads, int queueCapacity, Duration timeout) {
+        Bulkhead bulkhead = new Bulkhead(name, threads, queueCapacity, timeout, meterRegistry);
+        bulkheads.add(bulkhead);
+        return bulkhead;
+    }
+
+    /**
+     * Submits a task that holds its bulkhead slot until the test ends
+     */
+    private void occupy(Bulkhead bulkhead, CountDownLatch started) {
+        CompletableFuture.runAsync(() -> {
+            try {
+                bulkhead.execute(() -> {
+                    started.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (Exception ignored) {
+                // The slot is what matters, not the outcome
+            }
+        });
+    }
+
+    private void awaitQueued(String name, int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("timeblock.bulkhead.queued").tag("bulkhead", name).gauge().value() < queued) {
+            assertTrue(System.nanoTime() < deadline, "task was never queued");
+            Thread.sleep(10);
+        }
+    }
+}
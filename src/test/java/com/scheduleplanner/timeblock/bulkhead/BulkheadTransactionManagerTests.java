@@ -0,0 +1,97 @@
+package com.scheduleplanner.timeblock.bulkhead;
+
+import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkheadTransactionManagerTests {
+
+    private static final int STUDENT_ID = 7474;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> timeBlockRepository.deleteByStudentId(STUDENT_ID));
+        bulkhead = new Bulkhead("test", 1, 1, Duration.ofSeconds(3), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void transactionsOnBulkheadThreadsEndAtTheBulkheadDeadline() {
+        assertInstanceOf(BulkheadTransactionManager.class, transactionManager);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        assertThrows(Exception.class, () -> bulkhead.execute(() -> transactionTemplate.execute(status -> {
+            // Statements may start until the three second deadline, rounded up to the whole second
+            sleepUninterruptibly(3300);
+            return timeBlockRepository.saveAndFlush(new TimeBlock("Too late", "Monday", "9:00 AM", "10:00 AM",
+                    "class", null, null, STUDENT_ID, 12));
+        })));
+
+        assertEquals(0, timeBlockRepository.countByStudentId(STUDENT_ID));
+    }
+
+    @Test
+    void transactionsWithinTheDeadlineCommit() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        bulkhead.execute(() -> transactionTemplate.execute(status -> timeBlockRepository.saveAndFlush(
+                new TimeBlock("In time", "Monday", "9:00 AM", "10:00 AM", "class", null, null, STUDENT_ID, 12))));
+
+        assertEquals(1, timeBlockRepository.countByStudentId(STUDENT_ID));
+    }
+
+    @Test
+    void transactionsStartedJustBeforeTheDeadlineCanStillRun() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        bulkhead.execute(() -> {
+            // Under a second left when the transaction begins
+            sleepUninterruptibly(2300);
+            return transactionTemplate.execute(status -> timeBlockRepository.saveAndFlush(
+                    new TimeBlock("Just in time", "Monday", "9:00 AM", "10:00 AM", "class", null, null, STUDENT_ID, 12)));
+        });
+
+        assertEquals(1, timeBlockRepository.countByStudentId(STUDENT_ID));
+    }
+
+    private static void sleepUninterruptibly(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException ignored) {
+                // Keep the transaction open past its timeout
+            }
+        }
+    }
+}
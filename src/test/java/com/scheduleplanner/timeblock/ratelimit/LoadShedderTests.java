@@ -0,0 +1,121 @@
+package com.scheduleplanner.timeblock.ratelimit;
+
+import com.scheduleplanner.timeblock.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadShedderTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoadShedder loadShedder;
+
+    @BeforeEach
+    void setUp() {
+        loadShedder = new LoadShedder();
+        ReflectionTestUtils.setField(loadShedder, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(loadShedder, "maxInFlight", 8);
+        ReflectionTestUtils.setField(loadShedder, "minInFlight", 2);
+        ReflectionTestUtils.setField(loadShedder, "targetQueueWait", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(loadShedder, "sampleInterval", Duration.ofHours(1));
+        loadShedder.init();
+    }
+
+    @Test
+    void shedsRequestsOverTheLimitUntilOneExits() {
+        for (int i = 0; i < 8; i++) {
+            assertNull(loadShedder.tryEnter());
+        }
+        assertNotNull(loadShedder.tryEnter());
+        assertEquals(8, loadShedder.getInFlight());
+
+        loadShedder.exit();
+        assertNull(loadShedder.tryEnter());
+    }
+
+    @Test
+    void longQueueWaitsCutTheLimitAndShortOnesRestoreIt() {
+        loadShedder.adjust(100);
+        assertEquals(6, loadShedder.getLimit());
+        for (int i = 0; i < 10; i++) {
+            loadShedder.adjust(100);
+        }
+        assertEquals(2, loadShedder.getLimit());
+        assertNull(loadShedder.tryEnter());
+        assertNull(loadShedder.tryEnter());
+        assertNotNull(loadShedder.tryEnter());
+
+        for (int i = 0; i < 10; i++) {
+            loadShedder.adjust(1);
+        }
+        assertEquals(8, loadShedder.getLimit());
+    }
+
+    @Test
+    void samplesMeanQueueWaitOfTheSlowestBulkheadSinceTheLastSample() {
+        Timer fast = Timer.builder(Bulkhead.QUEUE_WAIT_TIMER).tag("bulkhead", "read").register(meterRegistry);
+        Timer slow = Timer.builder(Bulkhead.QUEUE_WAIT_TIMER).tag("bulkhead", "write").register(meterRegistry);
+        slow.record(Duration.ofSeconds(5));
+        assertEquals(0, loadShedder.sampleQueueWaitMillis());
+
+        fast.record(Duration.ofMillis(2));
+        slow.record(Duration.ofMillis(40));
+        slow.record(Duration.ofMillis(60));
+        assertEquals(50, loadShedder.sampleQueueWaitMillis(), 0.001);
+
+        assertEquals(0, loadShedder.sampleQueueWaitMillis());
+    }
+
+    @Test
+    void bulkheadRejectionsAndTimeoutsCountAsOverload() {
+        Counter rejected = Counter.builder(Bulkhead.REJECTED_COUNTER).tag("bulkhead", "read").register(meterRegistry);
+        Counter timeouts = Counter.builder(Bulkhead.TIMEOUT_COUNTER).tag("bulkhead", "write").register(meterRegistry);
+        loadShedder.sampleQueueWaitMillis();
+
+        rejected.increment();
+        assertEquals(Double.POSITIVE_INFINITY, loadShedder.sampleQueueWaitMillis());
+        assertEquals(0, loadShedder.sampleQueueWaitMillis());
+
+        timeouts.increment();
+        assertEquals(Double.POSITIVE_INFINITY, loadShedder.sampleQueueWaitMillis());
+    }
+
+    @Test
+    void bulkheadsRecordHowLongOperationsQueued() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("read", 1, 5, Duration.ofSeconds(5), meterRegistry);
+        try {
+            loadShedder.sampleQueueWaitMillis();
+            Thread blocker = new Thread(() -> {
+                try {
+                    bulkhead.execute(() -> {
+                        Thread.sleep(200);
+                        return null;
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            blocker.start();
+            Thread.sleep(50);
+            bulkhead.execute(() -> null);
+            blocker.join();
+
+            // The second operation queued behind the first for about 150 ms; the mean covers both
+            assertTrue(loadShedder.sampleQueueWaitMillis() > 50);
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.scheduleplanner.timeblock.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "timeblock.ratelimit.client.tokens-per-second=0.1",
+        "timeblock.ratelimit.client.capacity=2",
+        "timeblock.ratelimit.student.tokens-per-second=0.1",
+        "timeblock.ratelimit.student.capacity=1",
+        "timeblock.loadshed.retry-after-seconds=3"
+})
+class RateLimitInterceptorTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LoadShedder loadShedder;
+
+    @Test
+    void answersTooManyRequestsWithRetryAfterOnceTheClientBucketIsEmpty() throws Exception {
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", 8101).with(client("10.0.1.1")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", 8102).with(client("10.0.1.1")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", 8103).with(client("10.0.1.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"))
+                .andExpect(jsonPath("$.message").value("Too many requests from this client"));
+
+        verify(loadShedder, times(2)).exit();
+    }
+
+    @Test
+    void limitsEachStudentAcrossClients() throws Exception {
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", 8201).with(client("10.0.2.1")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", 8201).with(client("10.0.2.2")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.message").value("Too many requests for this student"));
+    }
+
+    @Test
+    void keysStudentsByTheirNumericId() throws Exception {
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", "08251").with(client("10.0.5.1")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", "8251").with(client("10.0.5.2")))
+                .andExpect(status().isTooManyRequests());
+        // Not a student ID, so no bucket; binding rejects it
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", "not-a-number").with(client("10.0.5.3")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", "not-a-number").with(client("10.0.5.4")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void answersServiceUnavailableWithRetryAfterWhenShedding() throws Exception {
+        when(loadShedder.tryEnter()).thenReturn("Too many requests in flight");
+
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}", 8301).with(client("10.0.3.1")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(jsonPath("$.message").value("Too many requests in flight"));
+
+        verify(loadShedder, never()).exit();
+    }
+
+    @Test
+    void leavesHealthChecksAlone() throws Exception {
+        when(loadShedder.tryEnter()).thenReturn("Too many requests in flight");
+
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(get("/api/timeblocks/health").with(client("10.0.4.1")))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private static RequestPostProcessor client(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
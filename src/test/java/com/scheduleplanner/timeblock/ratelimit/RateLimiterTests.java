@@ -0,0 +1,72 @@
+package com.scheduleplanner.timeblock.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTests {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+
+    @Test
+    void limitsEachKeyIndependently() {
+        RateLimiter limiter = new RateLimiter(1, 2, 100, clock::get);
+
+        assertEquals(0, limiter.tryConsume("10.0.0.1"));
+        assertEquals(0, limiter.tryConsume("10.0.0.1"));
+        assertTrue(limiter.tryConsume("10.0.0.1") > 0);
+        assertEquals(0, limiter.tryConsume("10.0.0.2"));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void evictsRefilledBucketsOnceMaxKeysIsReached() {
+        RateLimiter limiter = new RateLimiter(1, 2, 3, clock::get);
+        limiter.tryConsume("a");
+        limiter.tryConsume("b");
+        limiter.tryConsume("c");
+        limiter.tryConsume("c");
+        assertEquals(3, limiter.size());
+
+        // After a second a and b are full again, c has only got one of its two tokens back
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.tryConsume("d");
+
+        assertEquals(2, limiter.size());
+        assertEquals(0, limiter.tryConsume("c"));
+        assertTrue(limiter.tryConsume("c") > 0);
+    }
+
+    @Test
+    void sharesAnOverflowBucketWhenNothingCanBeEvicted() {
+        RateLimiter limiter = new RateLimiter(1, 1, 2, clock::get);
+        limiter.tryConsume("a");
+        limiter.tryConsume("b");
+
+        assertEquals(0, limiter.tryConsume("c"));
+        assertTrue(limiter.tryConsume("d") > 0);
+
+        assertEquals(2, limiter.size());
+        assertTrue(limiter.tryConsume("a") > 0);
+    }
+
+    @Test
+    void sweepsAtMostOncePerRefillPeriod() {
+        RateLimiter limiter = new RateLimiter(1, 1, 1, clock::get);
+        limiter.tryConsume("a");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, limiter.tryConsume("b"));
+
+        // a has refilled, but the sweep that ran for b is not due again yet, so c shares b's overflow bucket
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(900));
+        assertTrue(limiter.tryConsume("c") > 0);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, limiter.tryConsume("c"));
+        assertEquals(1, limiter.size());
+    }
+}
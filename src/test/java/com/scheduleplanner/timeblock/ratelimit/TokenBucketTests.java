@@ -0,0 +1,107 @@
+package com.scheduleplanner.timeblock.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    void allowsBurstOfCapacityThenReportsWaitForNextToken() {
+        TokenBucket bucket = new TokenBucket(4, 3, clock::get);
+
+        assertTrue(bucket.isFull());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume());
+        }
+        assertFalse(bucket.isFull());
+        assertEquals(SECOND / 4, bucket.tryConsume());
+
+        clock.addAndGet(SECOND / 8);
+        assertEquals(SECOND / 8, bucket.tryConsume());
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(4, 3, clock::get);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume();
+        }
+
+        clock.addAndGet(SECOND / 2);
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+
+        clock.addAndGet(SECOND);
+        assertTrue(bucket.isFull());
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(4, 3, clock::get);
+
+        clock.addAndGet(60 * SECOND);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume());
+        }
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    @Test
+    void concurrentCallersNeverTakeMoreThanCapacity() throws Exception {
+        int capacity = 100;
+        int threads = 8;
+        TokenBucket bucket = new TokenBucket(1, capacity, clock::get);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Callable<Integer> consumer = () -> {
+                    start.await();
+                    int taken = 0;
+                    for (int i = 0; i < capacity; i++) {
+                        if (bucket.tryConsume() == 0) {
+                            taken++;
+                        }
+                    }
+                    return taken;
+                };
+                results.add(executor.submit(consumer));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(capacity, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveRateOrCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
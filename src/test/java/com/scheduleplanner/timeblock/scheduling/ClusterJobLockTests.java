@@ -0,0 +1,58 @@
+package com.scheduleplanner.timeblock.scheduling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ClusterJobLockTests {
+
+    @Autowired
+    private ClusterJobLock clusterJobLock;
+
+    @Test
+    void skipsTheJobWhileAnotherRunHoldsTheClaim() {
+        AtomicBoolean nestedRan = new AtomicBoolean(true);
+
+        assertTrue(clusterJobLock.runExclusively("held-job", Duration.ofMinutes(10), Duration.ZERO,
+                () -> nestedRan.set(clusterJobLock.runExclusively("held-job", Duration.ofMinutes(10), Duration.ZERO,
+                        () -> { }))));
+
+        assertFalse(nestedRan.get());
+        // Released straight away once the run finished
+        assertTrue(clusterJobLock.runExclusively("held-job", Duration.ofMinutes(10), Duration.ZERO, () -> { }));
+    }
+
+    @Test
+    void keepsTheClaimForTheMinimumAfterAShortRun() {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertTrue(clusterJobLock.runExclusively("minimum-job", Duration.ofMinutes(10), Duration.ofMinutes(5),
+                runs::incrementAndGet));
+        assertFalse(clusterJobLock.runExclusively("minimum-job", Duration.ofMinutes(10), Duration.ofMinutes(5),
+                runs::incrementAndGet));
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void releasesTheClaimWhenTheJobFails() {
+        assertThrows(IllegalStateException.class, () -> clusterJobLock.runExclusively("failing-job",
+                Duration.ofMinutes(10), Duration.ZERO, () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        assertTrue(clusterJobLock.runExclusively("failing-job", Duration.ofMinutes(10), Duration.ZERO, () -> { }));
+    }
+}
@@ -0,0 +1,125 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CalendarFeedServiceTests {
+
+    private static final int STUDENT_ID = 7373;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private TimeBlockService timeBlockService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        timeBlockService.deleteAllTimeBlocksForStudent(STUDENT_ID);
+        timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Chemistry; Lab", "Wednesday",
+                "1:00 PM", "2:30 PM", "class", null, null, STUDENT_ID, 12));
+    }
+
+    @Test
+    void rendersWeeklyEventsAndServesRepeatsFromCache() {
+        CalendarFeedService.CalendarFeed feed = calendarFeedService.getFeed(STUDENT_ID);
+        String content = new String(feed.getContent(), StandardCharsets.UTF_8);
+
+        assertTrue(content.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(content.contains("SUMMARY:Chemistry\\; Lab\r\n"));
+        assertTrue(content.contains("RRULE:FREQ=WEEKLY;COUNT=12\r\n"));
+        assertTrue(content.matches("(?s).*DTSTART:\\d{8}T130000\r\n.*"));
+        assertTrue(content.matches("(?s).*DTEND:\\d{8}T143000\r\n.*"));
+        assertEquals(feed.getETag(), calendarFeedService.getCachedETag(STUDENT_ID));
+        assertSame(feed, calendarFeedService.getFeed(STUDENT_ID));
+    }
+
+    @Test
+    void writesEvictTheCachedFeed() {
+        String before = calendarFeedService.getFeed(STUDENT_ID).getETag();
+
+        timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Gym", "Thursday",
+                "6:00 PM", "7:00 PM", "personal", null, null, STUDENT_ID, 12));
+
+        assertNull(calendarFeedService.getCachedETag(STUDENT_ID));
+        assertNotEquals(before, calendarFeedService.getFeed(STUDENT_ID).getETag());
+    }
+
+    @Test
+    void rendersAgainOnceTheCachedFeedIsOlderThanMaxAge() {
+        CalendarFeedService.CalendarFeed feed = calendarFeedService.getFeed(STUDENT_ID);
+        Object maxAge = ReflectionTestUtils.getField(calendarFeedService, "maxAge");
+        ReflectionTestUtils.setField(calendarFeedService, "maxAge", Duration.ofMillis(-1));
+        try {
+            assertNull(calendarFeedService.getCachedETag(STUDENT_ID));
+            assertNotSame(feed, calendarFeedService.getFeed(STUDENT_ID));
+        } finally {
+            ReflectionTestUtils.setField(calendarFeedService, "maxAge", maxAge);
+        }
+        assertEquals(feed.getETag(), calendarFeedService.getCachedETag(STUDENT_ID));
+    }
+
+    @Test
+    void dropsLeastRecentlyUsedFeedWhenFull() {
+        Object maxEntries = ReflectionTestUtils.getField(calendarFeedService, "maxEntries");
+        ReflectionTestUtils.setField(calendarFeedService, "maxEntries", 2);
+        try {
+            calendarFeedService.getFeed(STUDENT_ID);
+            calendarFeedService.getFeed(STUDENT_ID + 1);
+            calendarFeedService.getCachedETag(STUDENT_ID);
+            calendarFeedService.getFeed(STUDENT_ID + 2);
+
+            assertNotNull(calendarFeedService.getCachedETag(STUDENT_ID));
+            assertNull(calendarFeedService.getCachedETag(STUDENT_ID + 1));
+            assertNotNull(calendarFeedService.getCachedETag(STUDENT_ID + 2));
+        } finally {
+            ReflectionTestUtils.setField(calendarFeedService, "maxEntries", maxEntries);
+        }
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/api/timeblocks/student/{studentId}/calendar.ics", STUDENT_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}/calendar.ics", STUDENT_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        mockMvc.perform(get("/api/timeblocks/student/{studentId}/calendar.ics", STUDENT_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+}
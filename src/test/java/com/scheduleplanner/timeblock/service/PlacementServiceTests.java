@@ -0,0 +1,111 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.PlacementRequestDTO;
+import com.scheduleplanner.timeblock.dto.PlacementSuggestionDTO;
+import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
+import com.scheduleplanner.timeblock.util.WeeklyOccupancy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PlacementServiceTests {
+
+    private static final int STUDENT_ID = 6161;
+
+    @Autowired
+    private PlacementService placementService;
+
+    @Autowired
+    private TimeBlockService timeBlockService;
+
+    @BeforeEach
+    void setUp() {
+        timeBlockService.deleteAllTimeBlocksForStudent(STUDENT_ID);
+        timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Lecture", "Monday",
+                "9:00 AM", "10:30 AM", "class", null, null, STUDENT_ID, 15));
+        timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Lab", "Tuesday",
+                "8:00 AM", "12:00 PM", "class", null, null, STUDENT_ID, 15));
+    }
+
+    @Test
+    void ranksFreeSlotsInsidePreferredWindowFirst() {
+        PlacementRequestDTO request = new PlacementRequestDTO(60, "study", List.of("Tuesday", "Monday"),
+                "9:00 AM", "11:00 AM", 4);
+
+        List<PlacementSuggestionDTO> suggestions = placementService.suggestPlacements(STUDENT_ID, request);
+
+        assertEquals(4, suggestions.size());
+        // Tuesday is blocked all morning, so the window only fits on Monday after the lecture
+        assertEquals("Monday", suggestions.get(0).getDay());
+        assertEquals("10:30 AM", suggestions.get(0).getStartTime());
+        assertEquals("11:30 AM", suggestions.get(0).getEndTime());
+        assertEquals(30, suggestions.get(0).getDistanceFromPreferred());
+        for (int i = 1; i < suggestions.size(); i++) {
+            assertTrue(suggestions.get(i - 1).getDistanceFromPreferred() <= suggestions.get(i).getDistanceFromPreferred());
+        }
+        suggestions.forEach(suggestion -> assertEquals("study", suggestion.getType()));
+    }
+
+    @Test
+    void suggestionsCanBeCreatedAndTheirSlotIsThenTaken() {
+        PlacementRequestDTO request = new PlacementRequestDTO(60, "study", List.of("Monday"),
+                "9:00 AM", "11:00 AM", 1);
+        PlacementSuggestionDTO suggestion = placementService.suggestPlacements(STUDENT_ID, request).get(0);
+        assertEquals("10:30 AM", suggestion.getStartTime());
+
+        // "10:30 AM" sorts before "9:00 AM" as a string; the conflict check must compare minutes
+        TimeBlockDTO created = timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Study", suggestion.getDay(),
+                suggestion.getStartTime(), suggestion.getEndTime(), suggestion.getType(), null, null, STUDENT_ID, 15));
+        assertEquals("10:30 AM", created.getStartTime());
+
+        assertThrows(IllegalArgumentException.class, () -> timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Overlap",
+                "Monday", "11:00 AM", "12:00 PM", "study", null, null, STUDENT_ID, 15)));
+        assertThrows(IllegalArgumentException.class, () -> timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Overlap",
+                "Monday", "9:30 AM", "10:00 AM", "study", null, null, STUDENT_ID, 15)));
+        assertEquals("8:00 AM", placementService.suggestPlacements(STUDENT_ID, request).get(0).getStartTime());
+    }
+
+    @Test
+    void returnsNothingWhenNoSlotFits() {
+        PlacementRequestDTO request = new PlacementRequestDTO(120, "study", List.of("Tuesday"), null, null, 5);
+        request.setEarliestStart("8:00 AM");
+        request.setLatestEnd("12:00 PM");
+
+        assertTrue(placementService.suggestPlacements(STUDENT_ID, request).isEmpty());
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> placementService.suggestPlacements(STUDENT_ID,
+                new PlacementRequestDTO(60, "study", List.of("Someday"), null, null, 5)));
+        assertThrows(IllegalArgumentException.class, () -> placementService.suggestPlacements(STUDENT_ID,
+                new PlacementRequestDTO(60, "study", null, "11:00 AM", "9:00 AM", 5)));
+        assertThrows(IllegalArgumentException.class, () -> placementService.suggestPlacements(STUDENT_ID,
+                new PlacementRequestDTO(60, "study", null, null, null, 500)));
+    }
+
+    @Test
+    void occupancyRoundsPartialSlotsOutwards() {
+        WeeklyOccupancy occupancy = new WeeklyOccupancy();
+        occupancy.occupy(DayOfWeek.WEDNESDAY, 62, 318);
+
+        assertTrue(occupancy.isFree(DayOfWeek.WEDNESDAY, 0, 12));
+        assertFalse(occupancy.isFree(DayOfWeek.WEDNESDAY, 12, 13));
+        assertFalse(occupancy.isFree(DayOfWeek.WEDNESDAY, 63, 64));
+        assertTrue(occupancy.isFree(DayOfWeek.WEDNESDAY, 64, WeeklyOccupancy.SLOTS_PER_DAY));
+        assertTrue(occupancy.isFree(DayOfWeek.TUESDAY, 0, WeeklyOccupancy.SLOTS_PER_DAY));
+        assertTrue(occupancy.isFree(DayOfWeek.THURSDAY, 0, WeeklyOccupancy.SLOTS_PER_DAY));
+    }
+}
@@ -0,0 +1,174 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.ImportReportDTO;
+import com.scheduleplanner.timeblock.dto.ImportResultDTO;
+import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
+import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import com.scheduleplanner.timeblock.util.ICalendarParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ScheduleImportServiceTests {
+
+    private static final int STUDENT_ID = 4242;
+
+    @Autowired
+    private ScheduleImportService scheduleImportService;
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    @BeforeEach
+    void setUp() {
+        timeBlockRepository.deleteAll(timeBlockRepository.findByStudentIdOrderByDayAscStartTimeAsc(STUDENT_ID));
+        timeBlockRepository.save(new TimeBlock("Work Shift", "Friday", "9:00 AM", "12:00 PM",
+                "work", null, null, STUDENT_ID, 15));
+    }
+
+    @Test
+    void importsWeeklyEventsAndRejectsConflicts() throws Exception {
+        String calendar = String.join("\r\n",
+            "BEGIN:VCALENDAR",
+            "VERSION:2.0",
+            "BEGIN:VTIMEZONE",
+            "TZID:America/Los_Angeles",
+            "BEGIN:STANDARD",
+            "DTSTART:19701101T020000",
+            "END:STANDARD",
+            "END:VTIMEZONE",
+            "BEGIN:VEVENT",
+            "UID:cs101@uni",
+            "SUMMARY:CS 101",
+            "LOCATION:Hall\\, Room 2",
+            "DTSTART;TZID=America/Los_Angeles:20250901T140000",
+            "DTEND;TZID=America/Los_Angeles:20250901T153000",
+            "RRULE:FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:ma201@uni",
+            "SUMMARY:MA 201 Linear",
+            "  Algebra",
+            "DTSTART:20250905T100000",
+            "DTEND:20250905T110000",
+            "RRULE:FREQ=WEEKLY;UNTIL=20251212T235959Z",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:lab@uni",
+            "SUMMARY:Lab",
+            "DTSTART:20250903T150000",
+            "DURATION:PT2H",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:holiday@uni",
+            "SUMMARY:Holiday",
+            "DTSTART;VALUE=DATE:20251127",
+            "END:VEVENT",
+            "END:VCALENDAR",
+            "");
+
+        ImportReportDTO report = scheduleImportService.importCalendar(STUDENT_ID,
+                new ByteArrayInputStream(calendar.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, report.getAccepted());
+        assertEquals(3, report.getRejected());
+
+        ImportResultDTO cs101 = report.getResults().get(0);
+        assertEquals(ImportResultDTO.ACCEPTED, cs101.getStatus());
+        assertEquals(2, cs101.getTimeBlocks().size());
+        TimeBlockDTO monday = cs101.getTimeBlocks().get(0);
+        assertEquals("Monday", monday.getDay());
+        assertEquals("2:00 PM", monday.getStartTime());
+        assertEquals("3:30 PM", monday.getEndTime());
+        assertEquals(10, monday.getWeeks());
+        assertEquals("Hall, Room 2", monday.getDescription());
+
+        ImportResultDTO ma201 = report.getResults().get(1);
+        assertEquals("MA 201 Linear Algebra", ma201.getSummary());
+        assertEquals("Time conflict detected with: Work Shift", ma201.getMessage());
+
+        ImportResultDTO lab = report.getResults().get(2);
+        assertEquals("Time conflict detected with: CS 101", lab.getMessage());
+
+        assertEquals(ImportResultDTO.REJECTED, report.getResults().get(3).getStatus());
+        assertEquals(3, timeBlockRepository.countByStudentId(STUDENT_ID));
+    }
+
+    @Test
+    void convertsUtcAndZonedTimesToScheduleZone() throws Exception {
+        String calendar = String.join("\r\n",
+            "BEGIN:VCALENDAR",
+            "BEGIN:VEVENT",
+            "UID:utc@uni",
+            "SUMMARY:Seminar",
+            "DTSTART:20250106T220000Z",
+            "DTEND:20250106T230000Z",
+            "RRULE:FREQ=WEEKLY;UNTIL=20250128T070000Z",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:ny@uni",
+            "SUMMARY:Office Hours",
+            "DTSTART;TZID=America/New_York:20250108T010000",
+            "DTEND;TZID=America/New_York:20250108T020000",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:evening@uni",
+            "SUMMARY:Evening Class",
+            "DTSTART:20250107T030000Z",
+            "DTEND:20250107T040000Z",
+            "RRULE:FREQ=WEEKLY;BYDAY=TU,TH;COUNT=4",
+            "END:VEVENT",
+            "END:VCALENDAR",
+            "");
+
+        ImportReportDTO report = scheduleImportService.importCalendar(STUDENT_ID,
+                new ByteArrayInputStream(calendar.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, report.getAccepted());
+        TimeBlockDTO seminar = report.getResults().get(0).getTimeBlocks().get(0);
+        assertEquals("Monday", seminar.getDay());
+        assertEquals("2:00 PM", seminar.getStartTime());
+        assertEquals("3:00 PM", seminar.getEndTime());
+        // UNTIL is Monday 11 PM Pacific, three weeks after the first occurrence
+        assertEquals(4, seminar.getWeeks());
+        TimeBlockDTO officeHours = report.getResults().get(1).getTimeBlocks().get(0);
+        assertEquals("Tuesday", officeHours.getDay());
+        assertEquals("10:00 PM", officeHours.getStartTime());
+        // Tuesday and Thursday 3 AM UTC fall on Monday and Wednesday evening in Los Angeles
+        List<TimeBlockDTO> evening = report.getResults().get(2).getTimeBlocks();
+        assertEquals(List.of("Monday", "Wednesday"), evening.stream().map(TimeBlockDTO::getDay).toList());
+        assertEquals("7:00 PM", evening.get(0).getStartTime());
+    }
+
+    @Test
+    void rejectsOversizedCalendarsAndContentLines() {
+        String event = String.join("\r\n", "BEGIN:VCALENDAR", "BEGIN:VEVENT", "UID:big@uni",
+                "SUMMARY:" + "x".repeat(200), "DTSTART:20250106T090000", "END:VEVENT", "END:VCALENDAR", "");
+        ICalendarParser small = new ICalendarParser(10, 100, ZoneOffset.UTC);
+        assertThrows(IllegalArgumentException.class,
+                () -> small.parse(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)), e -> { }));
+
+        ICalendarParser parser = new ICalendarParser(10, 1 << 20, ZoneOffset.UTC);
+        String longLine = "DESCRIPTION:" + "y".repeat(ICalendarParser.MAX_LINE_LENGTH);
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(
+                new ByteArrayInputStream(longLine.getBytes(StandardCharsets.UTF_8)), e -> { }));
+
+        // Folded continuations count towards the unfolded line's length too
+        String folded = "DESCRIPTION:" + ("\r\n " + "z".repeat(70)).repeat(ICalendarParser.MAX_LINE_LENGTH / 70 + 1);
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(
+                new ByteArrayInputStream(folded.getBytes(StandardCharsets.UTF_8)), e -> { }));
+    }
+}
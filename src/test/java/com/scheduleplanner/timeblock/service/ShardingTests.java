@@ -0,0 +1,324 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.config.ShardingProperties;
+import com.scheduleplanner.timeblock.dto.ShardMoveDTO;
+import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
+import com.scheduleplanner.timeblock.shard.ShardContext;
+import com.scheduleplanner.timeblock.shard.ShardDirectory;
+import com.scheduleplanner.timeblock.shard.ShardIdRanges;
+import com.scheduleplanner.timeblock.shard.ShardMovingException;
+import com.scheduleplanner.timeblock.shard.ShardRebalancer;
+import com.scheduleplanner.timeblock.shard.ShardRouting;
+import com.scheduleplanner.timeblock.shard.ShardRoutingDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "timeblock.sharding.enabled=true",
+        "timeblock.sharding.strategy=hash",
+        "timeblock.sharding.shards[0].url=jdbc:h2:mem:shard0;MODE=MySQL;NON_KEYWORDS=DAY;DB_CLOSE_DELAY=-1",
+        "timeblock.sharding.shards[0].username=sa",
+        "timeblock.sharding.shards[1].url=jdbc:h2:mem:shard1;MODE=MySQL;NON_KEYWORDS=DAY;DB_CLOSE_DELAY=-1",
+        "timeblock.sharding.shards[1].username=sa",
+        "timeblock.sharding.shards[2].url=jdbc:h2:mem:shard2;MODE=MySQL;NON_KEYWORDS=DAY;DB_CLOSE_DELAY=-1",
+        "timeblock.sharding.shards[2].username=sa"
+})
+class ShardingTests {
+
+    @Autowired
+    private TimeBlockService timeBlockService;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Autowired
+    private ShardRouting shardRouting;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TimeBlockArchiveService timeBlockArchiveService;
+
+    @Test
+    void storesEachStudentOnItsOwnShard() {
+        for (int studentId = 8001; studentId <= 8012; studentId++) {
+            TimeBlockDTO created = timeBlockService.createTimeBlock(block(studentId, "Monday", "9:00 AM", "10:00 AM"));
+            int shard = shardDirectory.shardFor(studentId);
+
+            assertEquals(1, countOnShard(shard, studentId));
+            assertEquals(shard, ShardIdRanges.shardForId(created.getId(), shardingProperties.getMaxShards()));
+            assertEquals(created.getTitle(), timeBlockService.getTimeBlockById(created.getId()).orElseThrow().getTitle());
+            assertEquals(1, timeBlockService.getTimeBlocksByStudentId(studentId).size());
+        }
+        long shardsUsed = IntStream.rangeClosed(8001, 8012).map(shardDirectory::shardFor).distinct().count();
+        assertTrue(shardsUsed > 1);
+    }
+
+    @Test
+    void gathersStudentsAcrossShardsInStudentOrder() {
+        List<Integer> studentIds = List.of(8105, 8101, 8103, 8102, 8104);
+        for (Integer studentId : studentIds) {
+            timeBlockService.createTimeBlock(block(studentId, "Tuesday", "1:00 PM", "2:00 PM"));
+            timeBlockService.createTimeBlock(block(studentId, "Monday", "8:00 AM", "9:00 AM"));
+        }
+
+        List<TimeBlockDTO> timeBlocks = timeBlockService.getTimeBlocksByStudentIds(studentIds);
+
+        assertEquals(10, timeBlocks.size());
+        for (int i = 0; i < timeBlocks.size(); i++) {
+            assertEquals(8101 + i / 2, timeBlocks.get(i).getStudentId());
+            assertEquals(i % 2 == 0 ? "Monday" : "Tuesday", timeBlocks.get(i).getDay());
+        }
+    }
+
+    @Test
+    void movesStudentToAnotherShardOnline() {
+        int studentId = 8201;
+        TimeBlockDTO monday = timeBlockService.createTimeBlock(block(studentId, "Monday", "9:00 AM", "10:00 AM"));
+        TimeBlockDTO wednesday = timeBlockService.createTimeBlock(block(studentId, "Wednesday", "9:00 AM", "10:00 AM"));
+        assertEquals(2, timeBlockService.getTimeBlocksByStudentId(studentId).size());
+        String feedBefore = calendarFeedService.getFeed(studentId).getETag();
+        int source = shardDirectory.shardFor(studentId);
+        int target = (source + 1) % 3;
+
+        ShardMoveDTO move = shardRebalancer.moveStudent(studentId, target);
+
+        assertEquals(2, move.getMovedTimeBlocks());
+        assertEquals(target, shardDirectory.shardFor(studentId));
+        assertEquals(2, countOnShard(target, studentId));
+        // The source keeps its rows for instances that have not refreshed their directory yet
+        assertEquals(2, countOnShard(source, studentId));
+        List<TimeBlockDTO> moved = timeBlockService.getTimeBlocksByStudentId(studentId);
+        assertEquals(List.of(monday.getId(), wednesday.getId()), moved.stream().map(TimeBlockDTO::getId).toList());
+        assertEquals(target, shardRouting.shardForTimeBlock(monday.getId()));
+        // Same blocks under the same IDs, so subscribers see an unchanged feed
+        assertEquals(feedBefore, calendarFeedService.getFeed(studentId).getETag());
+
+        // Blocks keep their IDs, which now resolve to the target
+        monday.setTitle("Moved");
+        timeBlockService.updateTimeBlock(monday.getId(), monday);
+        assertEquals("Moved", timeBlockService.getTimeBlockById(monday.getId()).orElseThrow().getTitle());
+        timeBlockService.deleteTimeBlock(wednesday.getId());
+        assertEquals(1, countOnShard(target, studentId));
+
+        timeBlockService.createTimeBlock(block(studentId, "Friday", "1:00 PM", "3:00 PM"));
+        assertEquals(2, countOnShard(target, studentId));
+        assertThrows(IllegalArgumentException.class,
+                () -> timeBlockService.createTimeBlock(block(studentId, "Friday", "2:00 PM", "4:00 PM")));
+
+        // An instance whose directory still points at the source cannot write there any more
+        assertThrows(ShardMovingException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ShardContext.bindToTransaction(source);
+            shardRouting.lockForTransaction(studentId);
+        }));
+
+        assertTrue(shardRebalancer.cleanUpMoves(Duration.ZERO) >= 1);
+        assertEquals(0, countOnShard(source, studentId));
+        assertEquals(2, countOnShard(target, studentId));
+        assertEquals("Moved", timeBlockService.getTimeBlockById(monday.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void movingBackReplacesTheCopyLeftOnTheOriginalShard() {
+        int studentId = 8251;
+        TimeBlockDTO created = timeBlockService.createTimeBlock(block(studentId, "Monday", "9:00 AM", "10:00 AM"));
+        int source = shardDirectory.shardFor(studentId);
+        int target = (source + 1) % 3;
+
+        shardRebalancer.moveStudent(studentId, target);
+        created.setTitle("Changed on the target");
+        timeBlockService.updateTimeBlock(created.getId(), created);
+        shardRebalancer.moveStudent(studentId, source);
+        shardRebalancer.cleanUpMoves(Duration.ZERO);
+
+        assertEquals(source, shardDirectory.shardFor(studentId));
+        assertEquals(1, countOnShard(source, studentId));
+        assertEquals(0, countOnShard(target, studentId));
+        assertEquals(source, shardRouting.shardForTimeBlock(created.getId()));
+        assertEquals("Changed on the target", timeBlockService.getTimeBlockById(created.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void rejectsWritesWhileTheStudentIsFencedOffItsShard() {
+        int studentId = 8501;
+        int shard = shardDirectory.shardFor(studentId);
+        new JdbcTemplate(shardRoutingDataSource.getShards().get(shard))
+                .update("INSERT INTO student_shard_fences (student_id, fenced) VALUES (?, TRUE)", studentId);
+
+        assertThrows(ShardMovingException.class,
+                () -> timeBlockService.createTimeBlock(block(studentId, "Monday", "9:00 AM", "10:00 AM")));
+        assertEquals(0, countOnShard(shard, studentId));
+
+        // Moving a student to its own shard clears a fence left by an interrupted move
+        shardRebalancer.moveStudent(studentId, shard);
+        timeBlockService.createTimeBlock(block(studentId, "Monday", "9:00 AM", "10:00 AM"));
+        assertEquals(1, countOnShard(shard, studentId));
+    }
+
+    @Test
+    void refusesASecondMoveOfTheSameStudent() {
+        int studentId = 8551;
+        shardDirectory.claimMove(studentId, Duration.ofMinutes(10));
+        try {
+            assertThrows(IllegalStateException.class,
+                    () -> shardRebalancer.moveStudent(studentId, (shardDirectory.shardFor(studentId) + 1) % 3));
+        } finally {
+            shardDirectory.releaseMove(studentId);
+        }
+        // An abandoned claim is taken over once its lease has run out
+        shardDirectory.claimMove(studentId, Duration.ofMinutes(10));
+        shardDirectory.claimMove(studentId, Duration.ZERO);
+        shardDirectory.releaseMove(studentId);
+    }
+
+    @Test
+    void moveWaitsForInFlightWritesAndCarriesThemOver() throws Exception {
+        int studentId = 8601;
+        int source = shardDirectory.shardFor(studentId);
+        int target = (source + 1) % 3;
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> write = writer.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                timeBlockService.createTimeBlock(block(studentId, "Monday", "9:00 AM", "10:00 AM"));
+                written.countDown();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+
+            ShardMoveDTO move = shardRebalancer.moveStudent(studentId, target);
+
+            write.get(5, TimeUnit.SECONDS);
+            assertEquals(1, move.getMovedTimeBlocks());
+            shardRebalancer.cleanUpMoves(Duration.ZERO);
+            assertEquals(0, countOnShard(source, studentId));
+            assertEquals(1, countOnShard(target, studentId));
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    @Test
+    void archiveSkipsPastPagesOfFencedStudents() {
+        int fencedStudent = 8701;
+        int shard = shardDirectory.shardFor(fencedStudent);
+        int otherStudent = IntStream.range(8702, 8800)
+                .filter(candidate -> shardDirectory.shardFor(candidate) == shard)
+                .findFirst().orElseThrow();
+        JdbcTemplate shardJdbc = new JdbcTemplate(shardRoutingDataSource.getShards().get(shard));
+        for (int studentId : List.of(fencedStudent, otherStudent)) {
+            TimeBlockDTO created = timeBlockService.createTimeBlock(block(studentId, "Monday", "9:00 AM", "10:00 AM"));
+            shardJdbc.update("UPDATE time_blocks SET expires_at = ? WHERE time_block_id = ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusWeeks(25)), created.getId());
+        }
+        shardJdbc.update("UPDATE student_shard_fences SET fenced = TRUE WHERE student_id = ?", fencedStudent);
+        Object batchSize = ReflectionTestUtils.getField(timeBlockArchiveService, "batchSize");
+        ReflectionTestUtils.setField(timeBlockArchiveService, "batchSize", 1);
+        try {
+            // The fenced student's block fills the first one-row page; the run must carry on past it
+            timeBlockArchiveService.archiveExpired();
+        } finally {
+            ReflectionTestUtils.setField(timeBlockArchiveService, "batchSize", batchSize);
+            shardJdbc.update("UPDATE student_shard_fences SET fenced = FALSE WHERE student_id = ?", fencedStudent);
+        }
+
+        assertEquals(1, countOnShard(shard, fencedStudent));
+        assertEquals(0, countOnShard(shard, otherStudent));
+    }
+
+    @Test
+    void rejectsReassigningBlockToStudentOnAnotherShard() {
+        int studentId = 8301;
+        int otherStudentId = IntStream.range(8302, 8400)
+                .filter(candidate -> shardDirectory.shardFor(candidate) != shardDirectory.shardFor(studentId))
+                .findFirst().orElseThrow();
+        TimeBlockDTO created = timeBlockService.createTimeBlock(block(studentId, "Thursday", "9:00 AM", "10:00 AM"));
+
+        created.setStudentId(otherStudentId);
+
+        assertThrows(IllegalArgumentException.class, () -> timeBlockService.updateTimeBlock(created.getId(), created));
+    }
+
+    @Test
+    void routesBucketsThroughThePersistedBucketMap() {
+        JdbcTemplate directory = new JdbcTemplate(shardRoutingDataSource.getShards().get(0));
+        assertEquals(1024, directory.queryForObject("SELECT COUNT(*) FROM shard_buckets", Integer.class));
+        assertEquals(342, shardDirectory.getBucketsOn(0));
+        assertEquals(341, shardDirectory.getBucketsOn(2));
+
+        int studentId = 8401;
+        int bucket = shardDirectory.bucketFor(studentId);
+        int shard = shardDirectory.shardFor(studentId);
+        int remapped = (shard + 1) % 3;
+        directory.update("UPDATE shard_buckets SET shard = ? WHERE bucket = ?", remapped, bucket);
+        try {
+            shardDirectory.refresh();
+            assertEquals(remapped, shardDirectory.shardFor(studentId));
+        } finally {
+            directory.update("UPDATE shard_buckets SET shard = ? WHERE bucket = ?", shard, bucket);
+            shardDirectory.refresh();
+        }
+    }
+
+    @Test
+    void sizesIdRangesFromMaxShardsNotTheShardCount() {
+        int maxShards = shardingProperties.getMaxShards();
+        int firstOnShard1 = ShardIdRanges.firstId(1, maxShards);
+
+        assertEquals(Integer.MAX_VALUE / maxShards + 1, firstOnShard1);
+        assertEquals(0, ShardIdRanges.shardForId(firstOnShard1 - 1, maxShards));
+        assertEquals(1, ShardIdRanges.shardForId(firstOnShard1, maxShards));
+        assertEquals(2, ShardIdRanges.shardForId(ShardIdRanges.firstId(2, maxShards), maxShards));
+    }
+
+    private TimeBlockDTO block(int studentId, String day, String startTime, String endTime) {
+        return new TimeBlockDTO(null, "Block " + day, day, startTime, endTime, "study", null, null, studentId, 15);
+    }
+
+    private int countOnShard(int shard, int studentId) {
+        Integer count = new JdbcTemplate(shardRoutingDataSource.getShards().get(shard))
+                .queryForObject("SELECT COUNT(*) FROM time_blocks WHERE student_id = ?", Integer.class, studentId);
+        return count == null ? 0 : count;
+    }
+}
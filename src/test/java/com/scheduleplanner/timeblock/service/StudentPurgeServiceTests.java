@@ -0,0 +1,87 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.PurgeJobDTO;
+import com.scheduleplanner.timeblock.model.ArchivedTimeBlock;
+import com.scheduleplanner.timeblock.model.TimeBlock;
+import com.scheduleplanner.timeblock.repository.ArchivedTimeBlockRepository;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"timeblock.purge.student-chunk-size=2", "timeblock.purge.row-batch-size=3"})
+class StudentPurgeServiceTests {
+
+    @Autowired
+    private StudentPurgeService studentPurgeService;
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    @Autowired
+    private ArchivedTimeBlockRepository archivedTimeBlockRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void purgesStudentsInChunksAndReportsProgress() throws Exception {
+        List<TimeBlock> blocks = new ArrayList<>();
+        for (int studentId = 7001; studentId <= 7003; studentId++) {
+            for (int i = 0; i < 4; i++) {
+                blocks.add(new TimeBlock("Block " + i, "Monday", (8 + i) + ":00 AM", (8 + i) + ":30 AM",
+                        "study", null, null, studentId, 15));
+            }
+        }
+        blocks.add(new TimeBlock("Keep", "Monday", "8:00 AM", "9:00 AM", "study", null, null, 7004, 15));
+        timeBlockRepository.saveAll(blocks);
+        for (int id = 990001; id <= 990004; id++) {
+            archivedTimeBlockRepository.save(new ArchivedTimeBlock(id, 7002, LocalDateTime.now(), LocalDateTime.now(),
+                    false, new byte[]{1}));
+        }
+
+        PurgeJobDTO job = studentPurgeService.submitPurge(List.of(7001, 7002, 7003));
+        for (int i = 0; i < 100 && job.getFinishedAt() == null; i++) {
+            Thread.sleep(50);
+            job = studentPurgeService.getJob(job.getJobId()).orElseThrow();
+        }
+
+        assertEquals(StudentPurgeService.COMPLETED, job.getStatus());
+        assertEquals(3, job.getProcessedStudents());
+        assertEquals(16, job.getDeletedTimeBlocks());
+        assertEquals(0, timeBlockRepository.countByStudentId(7001));
+        assertEquals(0, archivedTimeBlockRepository.countByStudentId(7002));
+        assertEquals(1, timeBlockRepository.countByStudentId(7004));
+    }
+
+    @Test
+    void reportsJobsFromTheDatabaseAndFailsAbandonedOnes() {
+        // As left behind by an instance that stopped mid-purge
+        LocalDateTime stale = LocalDateTime.now().minusHours(1);
+        new JdbcTemplate(dataSource).update("INSERT INTO purge_jobs (job_id, status, total_students, processed_students, "
+                        + "deleted_time_blocks, submitted_at, updated_at, instance) VALUES (?, ?, 10, 4, 40, ?, ?, ?)",
+                "abandoned-job", StudentPurgeService.RUNNING, Timestamp.valueOf(stale), Timestamp.valueOf(stale), "gone@host");
+
+        PurgeJobDTO job = studentPurgeService.getJob("abandoned-job").orElseThrow();
+
+        assertEquals(StudentPurgeService.FAILED, job.getStatus());
+        assertEquals(4, job.getProcessedStudents());
+        assertNotNull(job.getFinishedAt());
+        assertTrue(studentPurgeService.getJob("unknown-job").isEmpty());
+    }
+}
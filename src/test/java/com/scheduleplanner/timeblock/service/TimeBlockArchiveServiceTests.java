@@ -0,0 +1,114 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
+import com.scheduleplanner.timeblock.repository.ArchivedTimeBlockRepository;
+import com.scheduleplanner.timeblock.repository.TimeBlockRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TimeBlockArchiveServiceTests {
+
+    private static final int STUDENT_ID = 9191;
+
+    @Autowired
+    private TimeBlockArchiveService timeBlockArchiveService;
+
+    @Autowired
+    private TimeBlockService timeBlockService;
+
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+
+    @Autowired
+    private ArchivedTimeBlockRepository archivedTimeBlockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void movesExpiredBlocksToArchiveAndReadsThemOnRequest() {
+        timeBlockService.deleteAllTimeBlocksForStudent(STUDENT_ID);
+        TimeBlockDTO current = timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Current Course", "Monday",
+                "9:00 AM", "10:00 AM", "class", null, null, STUDENT_ID, 15));
+        TimeBlockDTO pastTerm = timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Past Course", "Friday",
+                "9:00 AM", "10:00 AM", "class", "Last spring", null, STUDENT_ID, 15));
+        TimeBlockDTO legacy = timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Legacy Course", "Wednesday",
+                "9:00 AM", "10:00 AM", "class", null, null, STUDENT_ID, 15));
+        // A block from a past term, and one written before expiresAt was tracked
+        jdbcTemplate.update("UPDATE time_blocks SET created_at = ?, expires_at = ? WHERE time_block_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusWeeks(40)), Timestamp.valueOf(LocalDateTime.now().minusWeeks(25)),
+                pastTerm.getId());
+        jdbcTemplate.update("UPDATE time_blocks SET created_at = ?, expires_at = NULL WHERE time_block_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusWeeks(60)), legacy.getId());
+        entityManagerFactory.getCache().evictAll();
+
+        assertEquals(2, timeBlockArchiveService.archiveExpired());
+
+        assertEquals(1, timeBlockRepository.countByStudentId(STUDENT_ID));
+        assertEquals(2, archivedTimeBlockRepository.countByStudentId(STUDENT_ID));
+        List<TimeBlockDTO> hot = timeBlockService.getTimeBlocksByStudentId(STUDENT_ID);
+        assertEquals(1, hot.size());
+        assertEquals(current.getId(), hot.get(0).getId());
+        assertNull(hot.get(0).getArchived());
+
+        List<TimeBlockDTO> all = timeBlockArchiveService.getTimeBlocksIncludingArchived(STUDENT_ID);
+        assertEquals(List.of("Monday", "Wednesday", "Friday"), all.stream().map(TimeBlockDTO::getDay).toList());
+        TimeBlockDTO archived = all.get(2);
+        assertEquals(pastTerm.getId(), archived.getId());
+        assertEquals("Past Course", archived.getTitle());
+        assertEquals("Last spring", archived.getDescription());
+        assertTrue(archived.getArchived());
+
+        assertEquals(0, timeBlockArchiveService.archiveExpired());
+        assertEquals(3, timeBlockService.deleteAllTimeBlocksForStudent(STUDENT_ID));
+        assertEquals(0, archivedTimeBlockRepository.countByStudentId(STUDENT_ID));
+    }
+
+    @Test
+    void concurrentRunsArchiveEachBlockOnce() throws Exception {
+        int studentId = STUDENT_ID + 1;
+        timeBlockService.deleteAllTimeBlocksForStudent(studentId);
+        for (String day : List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday")) {
+            TimeBlockDTO created = timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Old " + day, day,
+                    "9:00 AM", "10:00 AM", "class", null, null, studentId, 15));
+            jdbcTemplate.update("UPDATE time_blocks SET expires_at = ? WHERE time_block_id = ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusWeeks(25)), created.getId());
+        }
+        entityManagerFactory.getCache().evictAll();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(timeBlockArchiveService::archiveExpired);
+            Future<Integer> second = executor.submit(timeBlockArchiveService::archiveExpired);
+            // A run that hit a conflict would have logged and skipped the shard, archiving fewer
+            assertEquals(5, first.get(30, TimeUnit.SECONDS) + second.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, timeBlockRepository.countByStudentId(studentId));
+        assertEquals(5, archivedTimeBlockRepository.countByStudentId(studentId));
+        assertEquals(5, timeBlockService.deleteAllTimeBlocksForStudent(studentId));
+    }
+}
@@ -0,0 +1,73 @@
+package com.scheduleplanner.timeblock.service;
+
+import com.scheduleplanner.timeblock.dto.TimeBlockDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TimeBlockCacheTests {
+
+    private static final int STUDENT_ID = 5151;
+
+    @Autowired
+    private TimeBlockService timeBlockService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Integer timeBlockId;
+
+    @BeforeEach
+    void setUp() {
+        timeBlockService.deleteAllTimeBlocksForStudent(STUDENT_ID);
+        timeBlockId = timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Study Session", "Tuesday",
+                "2:00 PM", "4:00 PM", "study", null, null, STUDENT_ID, 15)).getId();
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedLookupByIdIsServedFromSecondLevelCache() {
+        timeBlockService.getTimeBlockById(timeBlockId);
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        timeBlockService.getTimeBlockById(timeBlockId);
+        timeBlockService.getTimeBlockById(timeBlockId);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void repeatedStudentQueryIsServedFromQueryCache() {
+        timeBlockService.getTimeBlocksByStudentId(STUDENT_ID);
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        timeBlockService.getTimeBlocksByStudentId(STUDENT_ID);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void writeInvalidatesCachedStudentQuery() {
+        timeBlockService.getTimeBlocksByStudentId(STUDENT_ID);
+        timeBlockService.createTimeBlock(new TimeBlockDTO(null, "Gym", "Wednesday",
+                "8:00 AM", "9:00 AM", "personal", null, null, STUDENT_ID, 15));
+        statistics.clear();
+
+        assertEquals(2, timeBlockService.getTimeBlocksByStudentId(STUDENT_ID).size());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+}